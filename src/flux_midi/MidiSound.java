@@ -14,7 +14,9 @@ import javax.sound.midi.Sequencer;
 import javax.sound.midi.Synthesizer;
 
 import flux_sound.Sound;
+import flux_sound.SoundEvent.SoundEventType;
 import flux_sound.SoundListener;
+import flux_sound.SoundMetrics;
 
 
 /**
@@ -28,9 +30,11 @@ public class MidiSound extends Sound implements MetaEventListener
 {
 	// ATTRIBUTES ---------------------------------------------------------
 
+	private static volatile boolean usesSynthesizer = true;
+	
 	private String fileName;
-	private Sequence midiSequence;
-	private Sequencer midiSequencer;
+	private volatile Sequence midiSequence;
+	private volatile Sequencer midiSequencer;
 	private long pauseposition, nextLoopStart, nextLoopEnd;
 	private double defaultTempo, defaultGain, nextTempo, nextGain;
 	private int nextLoopCount;
@@ -98,7 +102,7 @@ public class MidiSound extends Sound implements MetaEventListener
 	protected void stopSound()
 	{
 		// Stops the music from playing and informs the listeners
-		if (this.midiSequencer.isRunning())
+		if (this.midiSequencer != null && this.midiSequencer.isRunning())
 		{
 			// Doesn't listen to the sequencer anymore
 			this.midiSequencer.removeMetaEventListener(this);
@@ -110,24 +114,76 @@ public class MidiSound extends Sound implements MetaEventListener
 	@Override
 	public void pause()
 	{
-		if (this.midiSequencer.isRunning())
+		if (this.midiSequencer != null && this.midiSequencer.isRunning())
 		{
 			this.midiSequencer.stop();
 			this.pauseposition = this.midiSequencer.getTickPosition();
 			this.paused = true;
+			informSoundEvent(SoundEventType.PAUSE, this.pauseposition, -1);
 		}
 	}
 
 	@Override
 	public void unpause()
 	{
-		if (!this.midiSequencer.isRunning() && isPlaying())
+		if (isPlaying() && !this.midiSequencer.isRunning())
 		{
 			// Starts the music from the spot it was at
 			startMusic(this.pauseposition);
+			informSoundEvent(SoundEventType.RESUME, this.pauseposition, -1);
 		}
 	}
 	
+	/**
+	 * Parses the midi sequence and acquires a sequencer for it. This is done on the first 
+	 * play unless the sound has been preloaded.
+	 */
+	@Override
+	public synchronized void preload()
+	{
+		if (this.midiSequencer != null)
+			return;
+		
+		// tries to create the midisequence
+		try
+		{
+			this.midiSequence = MidiSystem.getSequence(new File(this.fileName));
+		}
+		catch (InvalidMidiDataException e)
+		{
+			System.err.println("Couldn't find create a midisequence!");
+			e.printStackTrace();
+		}
+		catch (IOException e)
+		{
+			System.err.println("IOException whilst creating midisequence!");
+			e.printStackTrace();
+		}
+		// Now let's try and set-up our midiSequencer
+		try
+		{
+			this.midiSequencer = MidiSystem.getSequencer(usesSynthesizer);
+		}
+		catch (MidiUnavailableException e)
+		{
+			System.err.println("Problems whilst setting up sequencer!");
+			e.printStackTrace();
+			SoundMetrics.recordLineOpenFailure();
+		}
+	}
+	
+	/**
+	 * The tick position of the sequence
+	 */
+	@Override
+	public long getFramePosition()
+	{
+		Sequencer sequencer = this.midiSequencer;
+		if (sequencer == null)
+			return -1;
+		return sequencer.getTickPosition();
+	}
+	
 	@Override
 	public void meta(MetaMessage event)
 	{
@@ -137,13 +193,34 @@ public class MidiSound extends Sound implements MetaEventListener
 			// Doesn't listen to the sequencer anymore
 			this.midiSequencer.removeMetaEventListener(this);
 			// Informs that the music stopped
-			informSoundEnd();
+			informSoundEnd(this.midiSequencer.getTickPosition(), -1);
 		}
 	}
 	
 
 	// OTHER METHODS ---------------------------------------------------
 	
+	/**
+	 * @return Are the midiSounds played through the default synthesizer
+	 */
+	public static boolean usesSynthesizer()
+	{
+		return usesSynthesizer;
+	}
+	
+	/**
+	 * Changes whether the midiSounds are played through the default synthesizer. Without a 
+	 * synthesizer, the sequences still play and inform their listeners but make no sound, 
+	 * so they can be used on machines that have no audio device. The change affects the 
+	 * sounds that haven't been played or preloaded yet.
+	 * @param useSynthesizer Should the sounds be connected to the default synthesizer 
+	 * (true by default)
+	 */
+	public static void setUsesSynthesizer(boolean useSynthesizer)
+	{
+		usesSynthesizer = useSynthesizer;
+	}
+	
 	/**
 	 * @return Is the sound on a pause
 	 */
@@ -166,7 +243,7 @@ public class MidiSound extends Sound implements MetaEventListener
 			stop();
 		
 		// Informs listeners and starts the music
-		informSoundStart(specificlistener);
+		informSoundStart(specificlistener, startPosition, -1);
 		startMusic(startPosition);
 	}
 
@@ -175,11 +252,15 @@ public class MidiSound extends Sound implements MetaEventListener
 	 */
 	public long getSequenceLength()
 	{
+		preload();
 		return this.midiSequence.getTickLength();
 	}
 
 	private void startMusic(long startPosition)
 	{	
+		// Makes sure the sequence has been loaded
+		preload();
+		
 		// Adds the music as a listener to the sequencer
 		this.midiSequencer.addMetaEventListener(this);
 		
@@ -201,6 +282,7 @@ public class MidiSound extends Sound implements MetaEventListener
 		{
 			System.err.println("Midi" + getName() +  "was unavailable!");
 			mue.printStackTrace();
+			SoundMetrics.recordLineOpenFailure();
 		}
 		
 		// Changes the music stats according to previous changes
@@ -314,6 +396,7 @@ public class MidiSound extends Sound implements MetaEventListener
 	 */
 	public double getTempoFactor()
 	{
+		preload();
 		return this.midiSequencer.getTempoFactor() / this.defaultTempo;
 	}
 	
@@ -324,7 +407,8 @@ public class MidiSound extends Sound implements MetaEventListener
 	 */
 	public void setGain(double newGain)
 	{
-		if (isPlaying())
+		// The gain can't be changed without a synthesizer
+		if (isPlaying() && usesSynthesizer)
 		{
 			Synthesizer synthesizer = null;
 			
@@ -370,30 +454,8 @@ public class MidiSound extends Sound implements MetaEventListener
 		this.nextGain = 1;
 		this.paused = false;
 		
-		// tries to create the midisequence
-		try
-		{
-			this.midiSequence = MidiSystem.getSequence(new File(this.fileName));
-		}
-		catch (InvalidMidiDataException e)
-		{
-			System.err.println("Couldn't find create a midisequence!");
-			e.printStackTrace();
-		}
-		catch (IOException e)
-		{
-			System.err.println("IOException whilst creating midisequence!");
-			e.printStackTrace();
-		}
-		// Now let's try and set-up our midiSequencer
-		try
-		{
-			this.midiSequencer = MidiSystem.getSequencer();
-		}
-		catch (MidiUnavailableException e)
-		{
-			System.err.println("Problems whilst setting up sequencer!");
-			e.printStackTrace();
-		}
+		// The sequence is loaded when it's first needed
+		this.midiSequence = null;
+		this.midiSequencer = null;
 	}
 }
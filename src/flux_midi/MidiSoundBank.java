@@ -1,5 +1,11 @@
 package flux_midi;
 
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import flux_sound.SoundMetrics;
+import flux_sound.SoundPreloader;
 import flux_sound.SoundResourceType;
 import arc_bank.Bank;
 import arc_bank.BankBank;
@@ -15,6 +21,13 @@ import arc_bank.ResourceInitializationException;
  */
 public class MidiSoundBank
 {
+	// ATTRIBUTES	-----------------------
+	
+	// The names of the constructed banks, used when registering the sounds to the metrics
+	private static final Map<Bank<MidiSound>, String> bankNames = 
+			Collections.synchronizedMap(new WeakHashMap<Bank<MidiSound>, String>());
+	
+	
 	// CONSTRUCTOR	-----------------------
 	
 	private MidiSoundBank()
@@ -36,6 +49,8 @@ public class MidiSoundBank
 	 * ...<br>
 	 * &bankName2<br>
 	 * ...<br>
+	 * The sequences are loaded in the background as the banks are constructed.
+	 * @see SoundPreloader
 	 */
 	public static void initializeMidiSoundResources(String fileName)
 	{
@@ -96,6 +111,7 @@ public class MidiSoundBank
 			// The line contains the name of the bank
 			Bank<MidiSound> newBank = new Bank<>();
 			bank.put(line, newBank);
+			bankNames.put(newBank, line);
 			return newBank;
 		}
 	}
@@ -132,6 +148,10 @@ public class MidiSoundBank
 			
 			MidiSound newSound = new MidiSound(arguments[1], arguments[0], gain, tempo);
 			bank.put(arguments[0], newSound);
+			SoundMetrics.registerSound(bankNames.get(bank), newSound);
+			
+			// The sequence is loaded in the background
+			SoundPreloader.preload(newSound);
 			
 			return newSound;
 		}	
@@ -22,6 +22,8 @@ public abstract class AbstractSoundTrack extends Sound implements SoundListener
 	 // The index to which the next jump will lead. -1 if the track is 
 	// supposed to traverse by default
 	private int nextjumpindex;
+	// The frame at which the previous phase ended
+	private long phaseendframe;
 	private StateOperator listensOperator;
 	private EventSelector<SoundEvent> eventSelector;
 	
@@ -48,6 +50,7 @@ public abstract class AbstractSoundTrack extends Sound implements SoundListener
 		this.loops = false;
 		this.releasespending = 0;
 		this.nextjumpindex = -1;
+		this.phaseendframe = -1;
 	}
 	
 	
@@ -90,6 +93,7 @@ public abstract class AbstractSoundTrack extends Sound implements SoundListener
 		if (!isPlaying())
 			return;
 		
+		this.phaseendframe = e.getFramePosition();
 		// Plays the next sound (if not paused, in which case delays the sound)
 		if (this.paused)
 			this.delayed = true;
@@ -131,6 +135,7 @@ public abstract class AbstractSoundTrack extends Sound implements SoundListener
 	{
 		this.paused = true;
 		this.currentsound.pause();
+		createSoundEvent(SoundEventType.PAUSE, -1, -1, this.currentindex);
 	}
 	
 	/**
@@ -141,6 +146,7 @@ public abstract class AbstractSoundTrack extends Sound implements SoundListener
 	{
 		// TODO: Unpausing doesn't always seem to work (when not delayed)
 		this.paused = false;
+		createSoundEvent(SoundEventType.RESUME, -1, -1, this.currentindex);
 		// Continues the track if it was delayed
 		if (this.delayed)
 			playnextsound();
@@ -178,6 +184,19 @@ public abstract class AbstractSoundTrack extends Sound implements SoundListener
 	}	
 	
 	
+	/**
+	 * The frame of the phase that is currently playing
+	 */
+	@Override
+	public long getFramePosition()
+	{
+		Sound current = this.currentsound;
+		if (current == null)
+			return -1;
+		return current.getFramePosition();
+	}
+	
+	
 	// OTHER METHODS	--------------------------------------------------
 	
 	/**
@@ -237,6 +256,7 @@ public abstract class AbstractSoundTrack extends Sound implements SoundListener
 			this.nextjumpindex = -1;
 			
 			// And plays the new sound
+			createSoundEvent(SoundEventType.PHASE_CHANGE, -1, -1, this.currentindex);
 			this.currentsound = playPhase(this.currentindex);
 		}
 		// otherwise checks whether more loops are needed
@@ -267,7 +287,7 @@ public abstract class AbstractSoundTrack extends Sound implements SoundListener
 					this.delayed = false;
 					this.paused = false;
 					this.releasespending = 0;
-					informSoundEnd();
+					informSoundEnd(this.phaseendframe, -1);
 					return;
 				}
 			}
@@ -275,6 +295,7 @@ public abstract class AbstractSoundTrack extends Sound implements SoundListener
 			this.currentloopcount = getLoopCount(this.currentindex);
 			
 			// And plays the new sound
+			createSoundEvent(SoundEventType.PHASE_CHANGE, -1, -1, this.currentindex);
 			this.currentsound = playPhase(this.currentindex);
 		}
 	}
@@ -0,0 +1,124 @@
+package flux_sound;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * LatencyHistogram counts durations in buckets whose sizes grow in powers of two. Recording 
+ * a duration is lock-free and doesn't allocate, so the histogram can be updated from the 
+ * audio threads. The percentiles are accurate to the bucket size (within a factor of two).
+ * 
+ * @author Mikko Hilpinen
+ * @since 17.10.2026
+ */
+public class LatencyHistogram
+{
+	// ATTRIBUTES	-----------------------------
+	
+	/**
+	 * How many buckets the histogram has. The first bucket holds durations under a 
+	 * microsecond and the last one everything over 2^38 microseconds (about 76 hours).
+	 */
+	public static final int BUCKETS = 40;
+	
+	private final AtomicLongArray counts;
+	
+	
+	// CONSTRUCTOR	-----------------------------
+	
+	/**
+	 * Creates a new empty histogram
+	 */
+	public LatencyHistogram()
+	{
+		this.counts = new AtomicLongArray(BUCKETS);
+	}
+	
+	
+	// GETTERS & SETTERS	---------------------
+	
+	/**
+	 * @return How many durations have been recorded
+	 */
+	public long getCount()
+	{
+		long count = 0;
+		for (int i = 0; i < BUCKETS; i++)
+		{
+			count += this.counts.get(i);
+		}
+		return count;
+	}
+	
+	/**
+	 * @return How many durations each bucket holds. Bucket i holds the durations under 
+	 * 2^i microseconds that didn't fit the previous bucket.
+	 */
+	public long[] getBucketCounts()
+	{
+		long[] copy = new long[BUCKETS];
+		for (int i = 0; i < BUCKETS; i++)
+		{
+			copy[i] = this.counts.get(i);
+		}
+		return copy;
+	}
+	
+	
+	// OTHER METHODS	-------------------------
+	
+	/**
+	 * Records a new duration
+	 * @param nanos The duration in nanoseconds
+	 */
+	public void record(long nanos)
+	{
+		this.counts.incrementAndGet(bucketOf(nanos));
+	}
+	
+	/**
+	 * Finds a percentile of the recorded durations
+	 * @param percentile The percentile [0, 1], 0.5 for the median
+	 * @return The upper limit of the bucket the percentile falls into in nanoseconds. 0 if 
+	 * nothing has been recorded.
+	 */
+	public long getPercentile(double percentile)
+	{
+		long[] snapshot = getBucketCounts();
+		long total = 0;
+		for (long count : snapshot)
+		{
+			total += count;
+		}
+		if (total == 0)
+			return 0;
+		
+		long target = Math.max(1, (long) Math.ceil(total * percentile));
+		long cumulative = 0;
+		for (int i = 0; i < BUCKETS; i++)
+		{
+			cumulative += snapshot[i];
+			if (cumulative >= target)
+				return (1L << i) * 1000;
+		}
+		return (1L << (BUCKETS - 1)) * 1000;
+	}
+	
+	/**
+	 * Removes all the recorded durations
+	 */
+	public void reset()
+	{
+		for (int i = 0; i < BUCKETS; i++)
+		{
+			this.counts.set(i, 0);
+		}
+	}
+	
+	private static int bucketOf(long nanos)
+	{
+		long micros = nanos / 1000;
+		if (micros <= 0)
+			return 0;
+		return Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros));
+	}
+}
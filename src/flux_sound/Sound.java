@@ -1,5 +1,8 @@
 package flux_sound;
 
+import java.util.EnumMap;
+import java.util.Map;
+
 import flux_sound.SoundEvent.SoundEventType;
 import genesis_event.Handled;
 import genesis_util.StateOperator;
@@ -20,8 +23,13 @@ public abstract class Sound implements Handled, StateOperatorListener
 	private SoundListener specificlistener;
 	private SoundListenerHandler listenerhandler;
 	private String name;
-	private boolean playing;
+	private volatile boolean playing;
 	private StateOperator isDeadOperator;
+	private final int journalId;
+	private final StartLatencyStats startLatencies;
+	// The events are immutable so each sound creates only one event of each type for the 
+	// events that don't carry any other information
+	private final Map<SoundEventType, SoundEvent> events;
 	
 	
 	// CONSTRUCTOR	------------------------------------------------------
@@ -39,6 +47,13 @@ public abstract class Sound implements Handled, StateOperatorListener
 		this.specificlistener = null;
 		this.playing = false;
 		this.isDeadOperator = new StateOperator(false, true);
+		this.events = new EnumMap<>(SoundEventType.class);
+		for (SoundEventType type : SoundEventType.values())
+		{
+			this.events.put(type, SoundEvent.createSharedEvent(this, type));
+		}
+		this.journalId = SoundJournal.registerSound(this, name);
+		this.startLatencies = new StartLatencyStats();
 		
 		this.isDeadOperator.getListenerHandler().add(this);
 	}
@@ -78,6 +93,50 @@ public abstract class Sound implements Handled, StateOperatorListener
 	public abstract void unpause();
 	
 	
+	/**
+	 * Plays or loops the sound starting from silence and raising the volume to its normal 
+	 * level over the given time. This is meant for class-subclass interaction only and the 
+	 * user should use the fadeIn() method instead. Sounds that can't fade simply start 
+	 * playing.
+	 * @param millis How long the fade lasts in milliseconds
+	 * @param loops Should the sound be looped
+	 * @see Sound#fadeIn(int, boolean, SoundListener)
+	 */
+	protected void fadeInSound(int millis, boolean loops)
+	{
+		if (loops)
+			loopSound();
+		else
+			playSound();
+	}
+	
+	/**
+	 * Lowers the volume of the sound to silence over the given time and then stops the 
+	 * sound. This is meant for class-subclass interaction only and the user should use the 
+	 * fadeOut() method instead. Sounds that fade should call {@link #informSoundEnd()} once 
+	 * the fade has finished. Sounds that can't fade simply stop.
+	 * @param millis How long the fade lasts in milliseconds
+	 * @see Sound#fadeOut(int)
+	 */
+	protected void fadeOutSound(int millis)
+	{
+		stop();
+	}
+	
+	/**
+	 * @return Does the subclass inform the listeners about the start of the sound itself, 
+	 * by calling {@link #informSoundStart(SoundListener)} once the sound has actually 
+	 * started. Sounds that may refuse to play should return true so that a refused play 
+	 * doesn't create a start event. By default, the start is informed before 
+	 * {@link #playSound()}, {@link #loopSound()} or {@link #fadeInSound(int, boolean)} is 
+	 * called.
+	 */
+	protected boolean informsStartItself()
+	{
+		return false;
+	}
+	
+	
 	// IMPLEMENTED METHODS	----------------------------------------------
 	
 	@Override
@@ -131,10 +190,13 @@ public abstract class Sound implements Handled, StateOperatorListener
 		if (isPlaying())
 			stop();
 		
-		// Informs the listeners about the event
-		createSoundEvent(SoundEventType.START);
-		
-		this.playing = true;
+		// Informs the listeners about the event, unless the subclass does it once the sound 
+		// has actually started
+		if (!informsStartItself())
+		{
+			createSoundEvent(SoundEventType.START, 0, -1, -1);
+			this.playing = true;
+		}
 		// Plays the sound
 		playSound();
 	}
@@ -155,14 +217,76 @@ public abstract class Sound implements Handled, StateOperatorListener
 		if (isPlaying())
 			stop();
 		
-		// Informs the listeners about the event
-		createSoundEvent(SoundEventType.START);
-		
-		this.playing = true;
+		// Informs the listeners about the event, unless the subclass does it once the sound 
+		// has actually started
+		if (!informsStartItself())
+		{
+			createSoundEvent(SoundEventType.START, 0, -1, -1);
+			this.playing = true;
+		}
 		// Plays the sound
 		loopSound();
 	}
 	
+	/**
+	 * Plays the sound, starting from silence and raising the volume over the given time. 
+	 * The fade is applied sample by sample while the sound is mixed, so the game thread 
+	 * doesn't have to update it.
+	 * @param millis How long the fade lasts in milliseconds
+	 * @param loops Should the sound be looped until stopped
+	 * @param specificlistener A specific listener that will be informed about 
+	 * the events caused by this play of the sound only (null if not needed)
+	 */
+	public void fadeIn(int millis, boolean loops, SoundListener specificlistener)
+	{
+		// Only plays sounds if alive
+		if (getIsDeadStateOperator().getState())
+			return;
+		
+		// If the sound was already playing, stops the former one
+		if (isPlaying())
+			stop();
+		
+		// Informs the listeners about the event, unless the subclass does it once the sound 
+		// has actually started
+		if (!informsStartItself())
+		{
+			createSoundEvent(SoundEventType.START, 0, -1, -1);
+			this.playing = true;
+		}
+		// Plays the sound
+		fadeInSound(millis, loops);
+	}
+	
+	/**
+	 * Lowers the volume of the sound to silence over the given time and stops the sound 
+	 * once the fade has finished. The listeners are informed about the end of the sound 
+	 * when it stops.
+	 * @param millis How long the fade lasts in milliseconds
+	 */
+	public void fadeOut(int millis)
+	{
+		// Only fades sounds if alive and playing
+		if (getIsDeadStateOperator().getState() || !isPlaying())
+			return;
+		
+		fadeOutSound(millis);
+	}
+	
+	/**
+	 * Fades this sound out while fading another sound in over the same time
+	 * @param next The sound that will replace this sound
+	 * @param millis How long the crossfade lasts in milliseconds
+	 * @param loopsNext Should the next sound be looped until stopped
+	 * @see #fadeOut(int)
+	 * @see #fadeIn(int, boolean, SoundListener)
+	 */
+	public void crossfadeTo(Sound next, int millis, boolean loopsNext)
+	{
+		fadeOut(millis);
+		next.fadeIn(millis, loopsNext, null);
+	}
+	
 	/**
 	 * This method stops the sound from playing and informs the listeners about 
 	 * the end of the sound
@@ -173,11 +297,32 @@ public abstract class Sound implements Handled, StateOperatorListener
 		if (getIsDeadStateOperator().getState() || !isPlaying())
 			return;
 		
+		// The position is read before the sound stops
+		long framePosition = getFramePosition();
 		this.playing = false;
 		// Stops the sound
 		stopSound();
 		// Informs the listeners about the event
-		createSoundEvent(SoundEventType.END);
+		createSoundEvent(SoundEventType.END, framePosition, -1, -1);
+	}
+	
+	/**
+	 * Loads the data the sound needs so that the first play doesn't have to. Sounds that 
+	 * don't need loading do nothing. This may be called from any thread.
+	 * @see SoundPreloader
+	 */
+	public void preload()
+	{
+		// Sounds don't need loading by default
+	}
+	
+	/**
+	 * @return How many instances of the sound are currently playing or paused. Sounds 
+	 * that only play one instance at a time return 1 while they are playing.
+	 */
+	public int getActiveInstanceCount()
+	{
+		return isPlaying() ? 1 : 0;
 	}
 	
 	/**
@@ -188,6 +333,15 @@ public abstract class Sound implements Handled, StateOperatorListener
 		return this.playing;
 	}
 	
+	/**
+	 * @return The current frame of the sound. The sound events that don't specify their 
+	 * frame are given this frame. -1 if the sound can't tell its position or isn't playing.
+	 */
+	public long getFramePosition()
+	{
+		return -1;
+	}
+	
 	/**
 	 * @return The name of the sound to differentiate it from other sounds
 	 */
@@ -196,17 +350,62 @@ public abstract class Sound implements Handled, StateOperatorListener
 		return this.name;
 	}
 	
+	/**
+	 * @return The identifier of the sound in the {@link SoundJournal}
+	 */
+	int getJournalId()
+	{
+		return this.journalId;
+	}
+	
+	/**
+	 * @return The start latencies recorded for this sound
+	 */
+	StartLatencyStats getStartLatencyStats()
+	{
+		return this.startLatencies;
+	}
+	
 	/**
 	 * Subclasses should call this method when a sound ends naturally but not 
-	 * when stopSound method is called.
+	 * when stopSound method is called. This may be called from an audio thread, in which 
+	 * case the {@link SoundEventQueue} can be used for moving the event to the game thread.
 	 */
 	protected void informSoundEnd()
+	{
+		informSoundEnd(-1, -1);
+	}
+	
+	/**
+	 * Subclasses should call this method when a sound ends naturally but not 
+	 * when stopSound method is called
+	 * @param framePosition The frame at which the sound ended (-1 if the current frame 
+	 * should be used)
+	 * @param voiceId The identifier of the played instance that ended (-1 if the sound 
+	 * only plays one instance at a time)
+	 * @see #informSoundEnd()
+	 */
+	protected void informSoundEnd(long framePosition, long voiceId)
 	{
 		// Updates the status
 		this.playing = false;
 		
 		// Informs the listeners
-		createSoundEvent(SoundEventType.END);
+		createSoundEvent(SoundEventType.END, framePosition, voiceId, -1);
+	}
+	
+	/**
+	 * Subclasses should call this method when something else than the start or the end of 
+	 * the sound happens, for example when the sound loops or is paused
+	 * @param type The type of the event
+	 * @param framePosition The frame at which the event happened (-1 if the current frame 
+	 * should be used)
+	 * @param voiceId The identifier of the played instance the event concerns (-1 if the 
+	 * event concerns the whole sound)
+	 */
+	protected void informSoundEvent(SoundEventType type, long framePosition, long voiceId)
+	{
+		createSoundEvent(type, framePosition, voiceId, -1);
 	}
 	
 	/**
@@ -216,20 +415,89 @@ public abstract class Sound implements Handled, StateOperatorListener
 	 * during this one sound
 	 */
 	protected void informSoundStart(SoundListener specificlistener)
+	{
+		informSoundStart(specificlistener, -1, -1);
+	}
+	
+	/**
+	 * Subclasses should call this method when a sound starts outside the 
+	 * playsound method
+	 * @param specificlistener A listener that will be informed about events 
+	 * during this one sound
+	 * @param framePosition The frame the sound started from (-1 if the current frame 
+	 * should be used)
+	 * @param voiceId The identifier of the played instance that started (-1 if the sound 
+	 * only plays one instance at a time)
+	 * @see #informSoundStart(SoundListener)
+	 */
+	protected void informSoundStart(SoundListener specificlistener, long framePosition, 
+			long voiceId)
 	{
 		// Updates the status
 		this.playing = true;
 		this.specificlistener = specificlistener;
 		
 		// Informs the listeners
-		createSoundEvent(SoundEventType.START);
+		createSoundEvent(SoundEventType.START, framePosition, voiceId, -1);
 	}
 	
-	private void createSoundEvent(SoundEventType eventType)
+	/**
+	 * Informs the listeners about a new event created by this sound
+	 * @param eventType The type of the event
+	 * @param framePosition The frame at which the event happened (-1 if the current frame 
+	 * should be used)
+	 * @param voiceId The identifier of the played instance the event concerns (-1 if none)
+	 * @param phaseIndex The index of the track phase the event concerns (-1 if none)
+	 */
+	void createSoundEvent(SoundEventType eventType, long framePosition, long voiceId, 
+			int phaseIndex)
+	{
+		if (eventType == SoundEventType.START)
+			SoundMetrics.recordPlay();
+		
+		long timestamp = System.nanoTime();
+		if (framePosition < 0)
+			framePosition = getFramePosition();
+		
+		// Only the events that concern a single voice or phase are created separately. The 
+		// shared events get their moment and frame when they are dispatched.
+		SoundEvent e = null;
+		if (voiceId < 0 && phaseIndex < 0)
+			e = this.events.get(eventType);
+		else
+			e = new SoundEvent(this, eventType, timestamp, framePosition, voiceId, 
+					phaseIndex);
+		SoundJournal.recordEvent(e, timestamp, framePosition);
+		
+		// The queued events are informed once the queue is drained
+		if (SoundEventQueue.isEnabled())
+			SoundEventQueue.enqueue(e, this.specificlistener, timestamp, framePosition);
+		else
+			dispatchSoundEvent(e, this.specificlistener, timestamp, framePosition);
+	}
+	
+	/**
+	 * Informs the listeners about an event this sound created
+	 * @param e The event created by this sound
+	 * @param specificlistener The listener that was specifically interested in the event 
+	 * (optional)
+	 * @param timestamp The {@link System#nanoTime()} at which the event happened
+	 * @param framePosition The frame of the sound at which the event happened (-1 if 
+	 * unknown)
+	 */
+	void dispatchSoundEvent(SoundEvent e, SoundListener specificlistener, long timestamp, 
+			long framePosition)
 	{
-		SoundEvent e = new SoundEvent(this, eventType);
-		informListenerAboutEvent(this.specificlistener, e);
-		informListenerAboutEvent(getListenerHandler(), e);
+		e.beginDispatch(timestamp, framePosition);
+		try
+		{
+			informListenerAboutEvent(specificlistener, e);
+			informListenerAboutEvent(getListenerHandler(), e);
+		}
+		finally
+		{
+			e.endDispatch();
+		}
 	}
 	
 	private static void informListenerAboutEvent(SoundListener l, SoundEvent e)
@@ -1,14 +1,22 @@
 package flux_sound;
 
-import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 
 import genesis_event.Event;
 import genesis_event.EventSelector;
-import genesis_event.StrictEventSelector;
 
 /**
- * SoundEvents are created when a sound starts, ends or loops
+ * SoundEvents are created when a sound starts, ends, loops, pauses or otherwise changes 
+ * its state. Each event records the moment it was created, the frame of the sound, when 
+ * known, and the voice it concerns. The events are immutable. The events that don't 
+ * concern a single voice or phase are shared by the sound for each type, so that they 
+ * don't need to be created on each play. A shared event only knows its moment and frame 
+ * while it is being dispatched, so listeners that keep events should keep a 
+ * {@link #copy()} instead.
  * 
  * @author Mikko Hilpinen
  * @since 4.3.2015
@@ -17,34 +25,79 @@ public class SoundEvent implements Event
 {
 	// ATTRIBUTES	-----------------------------
 	
-	private Sound source;
-	private SoundEventType type;
+	private static final Map<SoundEventType, List<Event.Feature>> features = 
+			createFeatures();
+	// The shared events that are currently being dispatched on each thread
+	private static final ThreadLocal<DispatchStack> dispatches = 
+			new ThreadLocal<DispatchStack>()
+	{
+		@Override
+		protected DispatchStack initialValue()
+		{
+			return new DispatchStack();
+		}
+	};
+	
+	private final Sound source;
+	private final SoundEventType type;
+	private final long timestamp, framePosition, voiceId;
+	private final int phaseIndex;
+	private final boolean shared;
 	
 	
 	// CONSTRUCTOR	-----------------------------
 	
 	/**
-	 * Creates a new sound event
+	 * Creates a new sound event that happened just now
 	 * @param source The sound that originated the event
 	 * @param type The type of action that originated the event
 	 */
 	public SoundEvent(Sound source, SoundEventType type)
+	{
+		this(source, type, System.nanoTime(), -1, -1, -1);
+	}
+	
+	/**
+	 * Creates a new sound event
+	 * @param source The sound that originated the event
+	 * @param type The type of action that originated the event
+	 * @param timestamp The {@link System#nanoTime()} at which the event happened. -1 if 
+	 * unknown.
+	 * @param framePosition The frame of the sound at which the event happened. -1 if 
+	 * unknown.
+	 * @param voiceId The identifier of the played instance of the sound the event concerns. 
+	 * -1 if the event concerns the whole sound.
+	 * @param phaseIndex The index of the track phase the event concerns. -1 if the event 
+	 * doesn't concern a track phase.
+	 */
+	public SoundEvent(Sound source, SoundEventType type, long timestamp, long framePosition, 
+			long voiceId, int phaseIndex)
+	{
+		this(source, type, timestamp, framePosition, voiceId, phaseIndex, false);
+	}
+	
+	private SoundEvent(Sound source, SoundEventType type, long timestamp, long framePosition, 
+			long voiceId, int phaseIndex, boolean shared)
 	{
 		this.source = source;
 		this.type = type;
+		this.timestamp = timestamp;
+		this.framePosition = framePosition;
+		this.voiceId = voiceId;
+		this.phaseIndex = phaseIndex;
+		this.shared = shared;
 	}
 	
 	
 	// IMPLEMENTED METHODS	---------------------
 
+	/**
+	 * @return The features of the event. The returned list is shared and can't be modified.
+	 */
 	@Override
 	public List<Event.Feature> getFeatures()
 	{
-		List<Event.Feature> features = new ArrayList<>();
-		
-		features.add(this.type);
-		
-		return features;
+		return features.get(this.type);
 	}
 	
 	
@@ -66,22 +119,195 @@ public class SoundEvent implements Event
 		return this.type;
 	}
 	
+	/**
+	 * @return The {@link System#nanoTime()} at which the event happened. -1 if the event 
+	 * is shared and isn't being dispatched at the moment.
+	 * @see #copy()
+	 */
+	public long getTimestamp()
+	{
+		if (this.shared)
+			return dispatches.get().getTimestamp(this);
+		return this.timestamp;
+	}
+	
+	/**
+	 * @return The frame of the sound at which the event happened. For midi sounds this is 
+	 * the tick position of the sequence. -1 if unknown or if the event is shared and isn't 
+	 * being dispatched at the moment.
+	 * @see #copy()
+	 */
+	public long getFramePosition()
+	{
+		if (this.shared)
+			return dispatches.get().getFramePosition(this);
+		return this.framePosition;
+	}
+	
+	/**
+	 * @return The identifier of the played instance of the sound the event concerns. -1 if 
+	 * the event concerns the whole sound.
+	 */
+	public long getVoiceId()
+	{
+		return this.voiceId;
+	}
+	
+	/**
+	 * @return The index of the track phase the event concerns. For phase changes this is 
+	 * the index of the phase that started. -1 if the event doesn't concern a track phase.
+	 */
+	public int getPhaseIndex()
+	{
+		return this.phaseIndex;
+	}
+	
 	
 	// OTHER METHODS	-------------------------
 	
 	/**
-	 * Creates a new eventSelector that only accepts certain types of events
+	 * Creates an event that keeps the moment and the frame of this event after the 
+	 * dispatch. This should be called during the dispatch.
+	 * @return An event with the same information as this one. The event itself if it 
+	 * isn't shared.
+	 */
+	public SoundEvent copy()
+	{
+		if (!this.shared)
+			return this;
+		return new SoundEvent(this.source, this.type, getTimestamp(), getFramePosition(), 
+				this.voiceId, this.phaseIndex);
+	}
+	
+	/**
+	 * Creates an event that the sound shares between its plays
+	 * @param source The sound that originates the event
+	 * @param type The type of the event
+	 * @return A new shared event
+	 */
+	static SoundEvent createSharedEvent(Sound source, SoundEventType type)
+	{
+		return new SoundEvent(source, type, -1, -1, -1, -1, true);
+	}
+	
+	/**
+	 * Marks the event as being dispatched on this thread. Until the dispatch ends, a shared 
+	 * event reports the given moment and frame. Each call must be followed by 
+	 * {@link #endDispatch()}.
+	 * @param timestamp The {@link System#nanoTime()} at which the event happened
+	 * @param framePosition The frame of the sound at which the event happened (-1 if 
+	 * unknown)
+	 */
+	void beginDispatch(long timestamp, long framePosition)
+	{
+		if (this.shared)
+			dispatches.get().push(this, timestamp, framePosition);
+	}
+	
+	/**
+	 * Ends the dispatch started with {@link #beginDispatch(long, long)}
+	 */
+	void endDispatch()
+	{
+		if (this.shared)
+			dispatches.get().pop();
+	}
+	
+	private static Map<SoundEventType, List<Event.Feature>> createFeatures()
+	{
+		Map<SoundEventType, List<Event.Feature>> features = new EnumMap<>(SoundEventType.class);
+		for (SoundEventType type : SoundEventType.values())
+		{
+			features.put(type, Collections.<Event.Feature>singletonList(type));
+		}
+		return features;
+	}
+	
+	/**
+	 * Creates a new eventSelector that only accepts certain types of events. The listeners 
+	 * that use the selector are informed through an index in the {@link SoundListenerHandler}.
 	 * @param type The type of event accepted by the selector
 	 * @return A new eventSelector
+	 * @see SoundEventTypeSelector
 	 */
 	public static EventSelector<SoundEvent> createEventTypeSelector(SoundEventType type)
 	{
-		StrictEventSelector<SoundEvent, Feature> selector = new StrictEventSelector<>();
-		selector.addRequiredFeature(type);
-		return selector;
+		return new SoundEventTypeSelector(type);
 	}
 
 	
+	// SUBCLASSES	-----------------------------
+	
+	// The shared events that are being dispatched on a thread, with their moments and 
+	// frames. Listeners may create new events during a dispatch, so the dispatches stack.
+	private static class DispatchStack
+	{
+		// ATTRIBUTES	-------------------------
+		
+		private SoundEvent[] events;
+		private long[] timestamps, framePositions;
+		private int size;
+		
+		
+		// CONSTRUCTOR	-------------------------
+		
+		public DispatchStack()
+		{
+			this.events = new SoundEvent[4];
+			this.timestamps = new long[4];
+			this.framePositions = new long[4];
+			this.size = 0;
+		}
+		
+		
+		// OTHER METHODS	---------------------
+		
+		public void push(SoundEvent event, long timestamp, long framePosition)
+		{
+			if (this.size == this.events.length)
+			{
+				this.events = Arrays.copyOf(this.events, this.size * 2);
+				this.timestamps = Arrays.copyOf(this.timestamps, this.size * 2);
+				this.framePositions = Arrays.copyOf(this.framePositions, this.size * 2);
+			}
+			
+			this.events[this.size] = event;
+			this.timestamps[this.size] = timestamp;
+			this.framePositions[this.size] = framePosition;
+			this.size ++;
+		}
+		
+		public void pop()
+		{
+			this.size --;
+			this.events[this.size] = null;
+		}
+		
+		public long getTimestamp(SoundEvent event)
+		{
+			int index = indexOf(event);
+			return index < 0 ? -1 : this.timestamps[index];
+		}
+		
+		public long getFramePosition(SoundEvent event)
+		{
+			int index = indexOf(event);
+			return index < 0 ? -1 : this.framePositions[index];
+		}
+		
+		// The latest dispatch of the event is used
+		private int indexOf(SoundEvent event)
+		{
+			for (int i = this.size - 1; i >= 0; i--)
+			{
+				if (this.events[i] == event)
+					return i;
+			}
+			return -1;
+		}
+	}
+	
+	
 	// INTERFACES	-----------------------------
 	
 	/**
@@ -112,6 +338,33 @@ public class SoundEvent implements Event
 		/**
 		 * This event originated when a sound ended
 		 */
-		END;
+		END,
+		/**
+		 * This event originated when a looping sound jumped back to its loop start. The 
+		 * frame position of the event is the frame the sound jumped to.
+		 */
+		LOOP,
+		/**
+		 * This event originated when a sound was paused
+		 */
+		PAUSE,
+		/**
+		 * This event originated when a paused sound continued playing
+		 */
+		RESUME,
+		/**
+		 * This event originated when a track moved to another phase. The event carries 
+		 * the index of the new phase.
+		 */
+		PHASE_CHANGE,
+		/**
+		 * This event originated when the audio output ran out of samples while a sound 
+		 * was playing
+		 */
+		UNDERRUN,
+		/**
+		 * This event originated when a sound was stopped to make room for another sound
+		 */
+		VOICE_STOLEN;
 	}
 }
@@ -0,0 +1,129 @@
+package flux_sound;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * SoundEventQueue moves the sound events onto the game thread. Sounds often end on the 
+ * audio threads (the mixer thread or the midi sequencer's thread), which would otherwise 
+ * call the listeners right there, while the game logic runs on another thread. When the 
+ * queue is enabled, the sounds only add their events to the queue, which never blocks, 
+ * and the game loop dispatches all pending events in order by calling 
+ * {@link #drainSoundEvents()} once per frame.
+ *
+ * @author Mikko Hilpinen
+ * @since 17.10.2026
+ */
+public class SoundEventQueue
+{
+	// ATTRIBUTES	-----------------------------
+	
+	private static final Queue<QueuedEvent> events = new ConcurrentLinkedQueue<>();
+	private static volatile boolean enabled = false;
+	
+	
+	// CONSTRUCTOR	-----------------------------
+	
+	private SoundEventQueue()
+	{
+		// The interface is static
+	}
+	
+	
+	// GETTERS & SETTERS	---------------------
+	
+	/**
+	 * @return Are the sound events queued until they are drained
+	 */
+	public static boolean isEnabled()
+	{
+		return enabled;
+	}
+	
+	/**
+	 * Changes whether the sound events are queued. When enabled, all sound events, 
+	 * including those created on the game thread, are informed to the listeners only when 
+	 * {@link #drainSoundEvents()} is called, so that they stay in order.
+	 * @param enabled Should the sound events be queued. If false (default), the listeners 
+	 * are informed right away on the thread that creates the event. The events that were 
+	 * already queued stay in the queue until they are drained.
+	 */
+	public static void setEnabled(boolean enabled)
+	{
+		SoundEventQueue.enabled = enabled;
+	}
+	
+	/**
+	 * @return Are there sound events waiting to be dispatched
+	 */
+	public static boolean hasPendingEvents()
+	{
+		return !events.isEmpty();
+	}
+	
+	
+	// OTHER METHODS	-------------------------
+	
+	/**
+	 * Informs the listeners about the queued sound events in the order they were 
+	 * created. Only the events that were queued when the drain started are dispatched. 
+	 * The events created meanwhile, by the audio threads or by the listeners, are left for 
+	 * the next drain, so that a single drain always ends. This should be called from the 
+	 * game thread, usually once per frame.
+	 * @return How many events were dispatched
+	 */
+	public static int drainSoundEvents()
+	{
+		int pending = events.size();
+		int dispatched = 0;
+		QueuedEvent next = null;
+		while (dispatched < pending && (next = events.poll()) != null)
+		{
+			next.event.getSource().dispatchSoundEvent(next.event, next.specificListener, 
+					next.timestamp, next.framePosition);
+			dispatched ++;
+		}
+		
+		return dispatched;
+	}
+	
+	/**
+	 * Adds a sound event to the queue. This may be called from any thread.
+	 * @param event The event that was created
+	 * @param specificListener The listener that is specifically interested in the event 
+	 * (optional)
+	 * @param timestamp The {@link System#nanoTime()} at which the event happened
+	 * @param framePosition The frame of the sound at which the event happened (-1 if 
+	 * unknown)
+	 */
+	static void enqueue(SoundEvent event, SoundListener specificListener, long timestamp, 
+			long framePosition)
+	{
+		events.add(new QueuedEvent(event, specificListener, timestamp, framePosition));
+	}
+	
+	
+	// SUBCLASSES	-----------------------------
+	
+	private static class QueuedEvent
+	{
+		// ATTRIBUTES	-------------------------
+		
+		private final SoundEvent event;
+		private final SoundListener specificListener;
+		// The shared events get their moment and frame from here when they are dispatched
+		private final long timestamp, framePosition;
+		
+		
+		// CONSTRUCTOR	-------------------------
+		
+		public QueuedEvent(SoundEvent event, SoundListener specificListener, long timestamp, 
+				long framePosition)
+		{
+			this.event = event;
+			this.specificListener = specificListener;
+			this.timestamp = timestamp;
+			this.framePosition = framePosition;
+		}
+	}
+}
@@ -0,0 +1,52 @@
+package flux_sound;
+
+import flux_sound.SoundEvent.SoundEventType;
+import genesis_event.EventSelector;
+
+/**
+ * SoundEventTypeSelector selects the sound events of a single type. Since the selector 
+ * can't be changed, a {@link SoundListenerHandler} can index the listeners that use it 
+ * by the type and inform them without evaluating the selector.
+ *
+ * @author Mikko Hilpinen
+ * @since 17.10.2026
+ * @see SoundEvent#createEventTypeSelector(SoundEventType)
+ */
+public class SoundEventTypeSelector implements EventSelector<SoundEvent>
+{
+	// ATTRIBUTES	-----------------------------
+	
+	private final SoundEventType type;
+	
+	
+	// CONSTRUCTOR	-----------------------------
+	
+	/**
+	 * Creates a new selector
+	 * @param type The type of events the selector accepts
+	 */
+	public SoundEventTypeSelector(SoundEventType type)
+	{
+		this.type = type;
+	}
+	
+	
+	// IMPLEMENTED METHODS	---------------------
+	
+	@Override
+	public boolean selects(SoundEvent e)
+	{
+		return e.getType() == this.type;
+	}
+	
+	
+	// GETTERS & SETTERS	---------------------
+	
+	/**
+	 * @return The type of events the selector accepts
+	 */
+	public SoundEventType getType()
+	{
+		return this.type;
+	}
+}
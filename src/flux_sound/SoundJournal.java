@@ -0,0 +1,473 @@
+package flux_sound;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.BitSet;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * SoundJournal records every sound event into a binary file so that a long session can be 
+ * examined afterwards. The events are first written into a preallocated ring buffer, which 
+ * never blocks the thread that created the event, and a background thread then appends 
+ * them to a memory-mapped file. If the ring buffer is full, the new records are dropped 
+ * and counted. The start latencies of the wav sounds are recorded as well.
+ *
+ * The file starts with a header of {@link #RECORD_BYTES} bytes: the magic number, the 
+ * format version and the number of records written. Each record after that has the same 
+ * size and contains the sound id (int), the record kind (short), the event type or start 
+ * stage ordinal (short) and three longs. For {@link #KIND_EVENT} records they are the 
+ * timestamp, the frame position and the voice id of the event. For 
+ * {@link #KIND_START_STAGE} records they are the timestamp, the start latency in 
+ * nanoseconds and -1. {@link #KIND_SOUND} records introduce the sound ids and contain 
+ * the length of the sound's name followed by its UTF-8 bytes. Each sound is introduced 
+ * by the writer thread right before its first other record in the file, so the 
+ * introductions are never dropped. The names are only kept while the sounds exist, so a 
+ * sound that has been collected before its first record is written gets an empty name. 
+ * All numbers are big-endian.
+ *
+ * @author Mikko Hilpinen
+ * @since 17.10.2026
+ */
+public class SoundJournal
+{
+	// ATTRIBUTES	-----------------------------
+	
+	/**
+	 * The number at the start of each journal file
+	 */
+	public static final int MAGIC = 0x464C584A;
+	/**
+	 * The version of the journal format
+	 */
+	public static final int VERSION = 1;
+	/**
+	 * The size of the header and each record in bytes
+	 */
+	public static final int RECORD_BYTES = 32;
+	/**
+	 * The kind of the records that describe a sound event
+	 */
+	public static final short KIND_EVENT = 0;
+	/**
+	 * The kind of the records that introduce a sound id and the sound's name
+	 */
+	public static final short KIND_SOUND = 1;
+	/**
+	 * The kind of the records that describe how long it took for a sound to reach a start 
+	 * stage
+	 */
+	public static final short KIND_START_STAGE = 2;
+	
+	private static final int DEFAULT_CAPACITY = 65536;
+	private static final int CHUNK_RECORDS = 1 << 19;
+	private static final int SLOT_LONGS = 4;
+	private static final long IDLE_WAIT_NANOS = TimeUnit.MILLISECONDS.toNanos(5);
+	
+	private static final AtomicInteger soundIds = new AtomicInteger();
+	// The names of the sounds that haven't been collected yet, by sound id
+	private static final Map<Integer, SoundName> names = new ConcurrentHashMap<>();
+	private static final ReferenceQueue<Sound> collectedSounds = new ReferenceQueue<>();
+	private static volatile Ring ring = null;
+	private static Thread writer = null;
+	
+	
+	// CONSTRUCTOR	-----------------------------
+	
+	private SoundJournal()
+	{
+		// The interface is static
+	}
+	
+	
+	// GETTERS & SETTERS	---------------------
+	
+	/**
+	 * @return Is the journal currently recording events
+	 */
+	public static boolean isRecording()
+	{
+		return ring != null;
+	}
+	
+	/**
+	 * @return How many records were dropped because the ring buffer was full. The count 
+	 * is reset when the journal is started.
+	 */
+	public static long getDroppedCount()
+	{
+		Ring current = ring;
+		return current == null ? 0 : current.dropped.get();
+	}
+	
+	
+	// OTHER METHODS	-------------------------
+	
+	/**
+	 * Starts recording the sound events into a file. If the journal was already 
+	 * recording, the previous file is finished first.
+	 * @param file The file the events are written to. An existing file is overwritten.
+	 * @throws IOException If the file couldn't be opened
+	 */
+	public static void start(File file) throws IOException
+	{
+		start(file, DEFAULT_CAPACITY);
+	}
+	
+	/**
+	 * Starts recording the sound events into a file. If the journal was already 
+	 * recording, the previous file is finished first.
+	 * @param file The file the events are written to. An existing file is overwritten.
+	 * @param capacity How many records the ring buffer can hold before they are written. 
+	 * Rounded up to a power of two.
+	 * @throws IOException If the file couldn't be opened
+	 */
+	public static synchronized void start(File file, int capacity) throws IOException
+	{
+		stop();
+		
+		RandomAccessFile output = new RandomAccessFile(file, "rw");
+		output.setLength(0);
+		Ring newRing = new Ring(Integer.highestOneBit(Math.max(2, capacity - 1)) << 1);
+		
+		writer = new Thread(new JournalWriter(newRing, output.getChannel()), "SoundJournal");
+		writer.setDaemon(true);
+		ring = newRing;
+		writer.start();
+	}
+	
+	/**
+	 * Stops recording and writes the remaining events into the file. Does nothing if the 
+	 * journal isn't recording.
+	 */
+	public static synchronized void stop()
+	{
+		if (ring == null)
+			return;
+		
+		ring = null;
+		writer.interrupt();
+		try
+		{
+			writer.join();
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+		}
+		writer = null;
+	}
+	
+	/**
+	 * Records a sound event. This may be called from any thread.
+	 * @param e The event that was created
+	 * @param timestamp The {@link System#nanoTime()} at which the event happened
+	 * @param framePosition The frame of the sound at which the event happened (-1 if 
+	 * unknown)
+	 */
+	static void recordEvent(SoundEvent e, long timestamp, long framePosition)
+	{
+		Ring current = ring;
+		if (current != null)
+			current.add(e.getSource().getJournalId(), KIND_EVENT, e.getType().ordinal(), 
+					timestamp, framePosition, e.getVoiceId());
+	}
+	
+	/**
+	 * Records the time it took for a sound to reach a start stage. This may be called from 
+	 * any thread.
+	 * @param sound The sound that is starting
+	 * @param stage The stage that was reached
+	 * @param nanos How many nanoseconds it took from the play request to reach the stage
+	 */
+	static void recordStartStage(Sound sound, StartStage stage, long nanos)
+	{
+		Ring current = ring;
+		if (current != null)
+			current.add(sound.getJournalId(), KIND_START_STAGE, stage.ordinal(), 
+					System.nanoTime(), nanos, -1);
+	}
+	
+	/**
+	 * Gives a new sound its journal id. This is called once for each sound, when the sound 
+	 * is created.
+	 * @param sound The sound that is registered
+	 * @param name The name of the sound
+	 * @return The id of the sound in the journal files
+	 */
+	static int registerSound(Sound sound, String name)
+	{
+		// Forgets the names of the sounds that have been collected
+		Reference<? extends Sound> collected = null;
+		while ((collected = collectedSounds.poll()) != null)
+		{
+			names.remove(((SoundName) collected).id);
+		}
+		
+		int id = soundIds.incrementAndGet();
+		names.put(id, new SoundName(sound, id, name == null ? "" : name));
+		return id;
+	}
+	
+	
+	// SUBCLASSES	-----------------------------
+	
+	// The name of a sound, which is forgotten once the sound has been collected
+	private static class SoundName extends WeakReference<Sound>
+	{
+		// ATTRIBUTES	-------------------------
+		
+		private final int id;
+		private final String name;
+		
+		
+		// CONSTRUCTOR	-------------------------
+		
+		public SoundName(Sound sound, int id, String name)
+		{
+			super(sound, collectedSounds);
+			
+			this.id = id;
+			this.name = name;
+		}
+	}
+	
+	// A ring buffer with multiple producers and a single consumer. Each slot is published 
+	// by storing its sequence number once the slot has been written.
+	private static class Ring
+	{
+		// ATTRIBUTES	-------------------------
+		
+		private final long[] slots;
+		private final AtomicLongArray published;
+		private final AtomicLong claimed, consumed, dropped;
+		private final int mask;
+		
+		
+		// CONSTRUCTOR	-------------------------
+		
+		public Ring(int capacity)
+		{
+			this.slots = new long[capacity * SLOT_LONGS];
+			this.published = new AtomicLongArray(capacity);
+			for (int i = 0; i < capacity; i++)
+			{
+				this.published.set(i, -1);
+			}
+			this.claimed = new AtomicLong();
+			this.consumed = new AtomicLong();
+			this.dropped = new AtomicLong();
+			this.mask = capacity - 1;
+		}
+		
+		
+		// OTHER METHODS	---------------------
+		
+		public void add(int soundId, short kind, int type, long timestamp, long value, 
+				long voiceId)
+		{
+			// Claims a free slot, dropping the record if there is none
+			long sequence;
+			do
+			{
+				sequence = this.claimed.get();
+				if (sequence - this.consumed.get() > this.mask)
+				{
+					this.dropped.incrementAndGet();
+					return;
+				}
+			}
+			while (!this.claimed.compareAndSet(sequence, sequence + 1));
+			
+			int slot = (int) (sequence & this.mask);
+			int index = slot * SLOT_LONGS;
+			this.slots[index] = ((long) soundId << 32) | ((kind & 0xFFFFL) << 16) | 
+					(type & 0xFFFFL);
+			this.slots[index + 1] = timestamp;
+			this.slots[index + 2] = value;
+			this.slots[index + 3] = voiceId;
+			this.published.set(slot, sequence);
+		}
+	}
+	
+	private static class JournalWriter implements Runnable
+	{
+		// ATTRIBUTES	-------------------------
+		
+		private final Ring ring;
+		private final FileChannel channel;
+		private final byte[] nameBuffer;
+		private final BitSet introducedSounds;
+		private MappedByteBuffer header, chunk;
+		private long records;
+		private int chunkIndex;
+		
+		
+		// CONSTRUCTOR	-------------------------
+		
+		public JournalWriter(Ring ring, FileChannel channel)
+		{
+			this.ring = ring;
+			this.channel = channel;
+			this.nameBuffer = new byte[RECORD_BYTES - 8];
+			this.introducedSounds = new BitSet();
+			this.records = 0;
+			this.chunkIndex = -1;
+		}
+		
+		
+		// IMPLEMENTED METHODS	-----------------
+		
+		@Override
+		public void run()
+		{
+			try
+			{
+				this.header = this.channel.map(FileChannel.MapMode.READ_WRITE, 0, RECORD_BYTES);
+				this.header.order(ByteOrder.BIG_ENDIAN);
+				this.header.putInt(0, MAGIC);
+				this.header.putInt(4, VERSION);
+				this.header.putLong(8, 0);
+				
+				// Writes the records until the journal is stopped and the ring is empty
+				boolean stopped = false;
+				while (true)
+				{
+					int written = drain();
+					if (written > 0)
+						this.header.putLong(8, this.records);
+					else if (stopped)
+						break;
+					else
+					{
+						LockSupport.parkNanos(IDLE_WAIT_NANOS);
+						stopped = Thread.currentThread().isInterrupted();
+					}
+				}
+				
+				this.header.force();
+				if (this.chunk != null)
+					this.chunk.force();
+			}
+			catch (IOException e)
+			{
+				System.err.println("Failed to write the sound journal");
+				e.printStackTrace();
+			}
+			finally
+			{
+				try
+				{
+					this.channel.close();
+				}
+				catch (IOException e)
+				{
+					System.err.println("Failed to close the sound journal");
+					e.printStackTrace();
+				}
+			}
+		}
+		
+		
+		// OTHER METHODS	---------------------
+		
+		// Writes all the published records into the file
+		private int drain() throws IOException
+		{
+			Ring source = this.ring;
+			long next = source.consumed.get();
+			int written = 0;
+			while (true)
+			{
+				int slot = (int) (next & source.mask);
+				if (source.published.get(slot) != next)
+					break;
+				
+				int index = slot * SLOT_LONGS;
+				long key = source.slots[index];
+				write((int) (key >>> 32), (short) (key >>> 16), (short) key, 
+						source.slots[index + 1], source.slots[index + 2], 
+						source.slots[index + 3]);
+				
+				next ++;
+				written ++;
+				source.consumed.set(next);
+			}
+			
+			return written;
+		}
+		
+		private void write(int soundId, short kind, short type, long timestamp, long value, 
+				long voiceId) throws IOException
+		{
+			// Each sound is introduced before its first record in the file
+			if (!this.introducedSounds.get(soundId))
+			{
+				this.introducedSounds.set(soundId);
+				writeSound(soundId);
+			}
+			
+			MappedByteBuffer record = nextRecord();
+			record.putInt(soundId);
+			record.putShort(kind);
+			record.putShort(type);
+			record.putLong(timestamp);
+			record.putLong(value);
+			record.putLong(voiceId);
+		}
+		
+		private void writeSound(int soundId) throws IOException
+		{
+			// Sound records contain the name of the sound
+			SoundName soundName = names.get(soundId);
+			byte[] name = soundName == null ? new byte[0] : 
+					soundName.name.getBytes(StandardCharsets.UTF_8);
+			int length = Math.min(name.length, this.nameBuffer.length);
+			System.arraycopy(name, 0, this.nameBuffer, 0, length);
+			for (int i = length; i < this.nameBuffer.length; i++)
+			{
+				this.nameBuffer[i] = 0;
+			}
+			
+			MappedByteBuffer record = nextRecord();
+			record.putInt(soundId);
+			record.putShort(KIND_SOUND);
+			record.putShort((short) length);
+			record.put(this.nameBuffer);
+		}
+		
+		// Moves to the next record in the file, mapping a new chunk when the previous one 
+		// is full
+		private MappedByteBuffer nextRecord() throws IOException
+		{
+			int chunkRecord = (int) (this.records % CHUNK_RECORDS);
+			if (this.chunk == null || chunkRecord == 0)
+			{
+				if (this.chunk != null)
+					this.chunk.force();
+				this.chunkIndex ++;
+				this.chunk = this.channel.map(FileChannel.MapMode.READ_WRITE, 
+						RECORD_BYTES + (long) this.chunkIndex * CHUNK_RECORDS * RECORD_BYTES, 
+						(long) CHUNK_RECORDS * RECORD_BYTES);
+				this.chunk.order(ByteOrder.BIG_ENDIAN);
+			}
+			
+			this.chunk.position(chunkRecord * RECORD_BYTES);
+			this.records ++;
+			return this.chunk;
+		}
+	}
+}
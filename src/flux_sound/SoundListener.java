@@ -14,7 +14,11 @@ import genesis_util.StateOperator;
 public interface SoundListener extends Handled
 {
 	/**
-	 * This method is called when a listener receives an event it is interested in
+	 * This method is called when a listener receives an event it is interested in. The 
+	 * events are immutable. The events that don't concern a single voice or phase are 
+	 * shared between the plays of the sound and only know their timestamp and frame 
+	 * position during this call, so a listener that keeps the event or passes it to 
+	 * another thread should use {@link SoundEvent#copy()}.
 	 * @param e A sound event
 	 */
 	public void onSoundEvent(SoundEvent e);
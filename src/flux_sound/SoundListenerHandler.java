@@ -1,6 +1,17 @@
 package flux_sound;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+import flux_sound.SoundEvent.SoundEventType;
 import genesis_event.EventSelector;
+import genesis_event.Handled;
 import genesis_event.Handler;
 import genesis_event.HandlerRelay;
 import genesis_event.HandlerType;
@@ -9,7 +20,14 @@ import genesis_util.StateOperator;
 
 /**
  * Soundlistenerhandler informs multiple listeners about sound events of sounds 
- * it listens to
+ * it listens to. The listeners are informed in the order they were added. The listeners 
+ * that only select a single event type (see 
+ * {@link SoundEvent#createEventTypeSelector(SoundEventType)}) are indexed by the type when 
+ * they are added, so while the handler has no other listeners, an event only touches the 
+ * listeners that are interested in its type. Otherwise all the listeners are gone through 
+ * in order and only the other listeners go through their selectors. Listeners that reach 
+ * the handler without {@link #add(SoundListener)} are indexed once they are found, and 
+ * dead listeners are dropped from the index as soon as they are found.
  *
  * @author Mikko Hilpinen.
  * @since 19.8.2013.
@@ -21,6 +39,10 @@ public class SoundListenerHandler extends Handler<SoundListener> implements Soun
 	private SoundEvent lastevent;
 	private StateOperator listensOperator;
 	private EventSelector<SoundEvent> eventSelector;
+	// The listeners with a type selector in arrays that are replaced on each change
+	private final Map<SoundEventType, SoundListener[]> typeListeners;
+	private final Map<SoundListener, SoundEventType> indexedListeners;
+	private final Set<SoundListener> genericListeners;
 	
 	
 	// CONSTRUCTOR	-----------------------------------------------------
@@ -40,6 +62,11 @@ public class SoundListenerHandler extends Handler<SoundListener> implements Soun
 		this.lastevent = null;
 		this.listensOperator = new AnyListensToSoundsOperator();
 		this.eventSelector = new StrictEventSelector<>();
+		this.typeListeners = createTypeIndex();
+		this.indexedListeners = new IdentityHashMap<>();
+		// The generic listeners are only counted, so they are not kept alive here
+		this.genericListeners = Collections.newSetFromMap(
+				new WeakHashMap<SoundListener, Boolean>());
 	}
 	
 	/**
@@ -54,17 +81,72 @@ public class SoundListenerHandler extends Handler<SoundListener> implements Soun
 		this.lastevent = null;
 		this.listensOperator = new AnyListensToSoundsOperator();
 		this.eventSelector = new StrictEventSelector<>();
+		this.typeListeners = createTypeIndex();
+		this.indexedListeners = new IdentityHashMap<>();
+		// The generic listeners are only counted, so they are not kept alive here
+		this.genericListeners = Collections.newSetFromMap(
+				new WeakHashMap<SoundListener, Boolean>());
 	}
 	
 	
 	// IMPLEMENTED METHODS	---------------------------------------------
 	
+	/**
+	 * Adds a new listener to the handler. A listener that uses a 
+	 * {@link SoundEventTypeSelector} is indexed by its type, so its selector should not be 
+	 * changed afterwards.
+	 * @param l The listener that is added
+	 */
+	@Override
+	public void add(SoundListener l)
+	{
+		register(l);
+		super.add(l);
+	}
+	
+	@Override
+	public void removeHandled(Handled h)
+	{
+		removeFromIndex(h);
+		super.removeHandled(h);
+	}
+	
+	@Override
+	public void removeAllHandleds()
+	{
+		synchronized (this.typeListeners)
+		{
+			for (SoundEventType type : SoundEventType.values())
+			{
+				this.typeListeners.put(type, new SoundListener[0]);
+			}
+			this.indexedListeners.clear();
+			this.genericListeners.clear();
+		}
+		
+		super.removeAllHandleds();
+	}
+	
 	@Override
 	protected boolean handleObject(SoundListener l)
 	{
-		// If the listener is not willing to receive the event, skips it
-		if (!l.getListensToSoundEventsOperator().getState() || 
-				!l.getSoundEventSelector().selects(this.lastevent))
+		// Dead listeners are removed from the index and skipped
+		if (l.getIsDeadStateOperator().getState())
+		{
+			removeFromIndex(l);
+			return true;
+		}
+		// Listeners may also reach the handler without add(), in which case they are 
+		// indexed once they are found
+		register(l);
+		
+		// If the listener is not willing to receive the event, skips it. The indexed 
+		// listeners only need their type checked.
+		if (!l.getListensToSoundEventsOperator().getState())
+			return true;
+		SoundEventType indexedType = getIndexedType(l);
+		if (indexedType == null ? !l.getSoundEventSelector().selects(this.lastevent) : 
+				indexedType != this.lastevent.getType())
 			return true;
 		
 		l.onSoundEvent(this.lastevent);
@@ -83,8 +165,28 @@ public class SoundListenerHandler extends Handler<SoundListener> implements Soun
 	{
 		// Updates status
 		this.lastevent = e;
-		// Informs listeners
-		handleObjects();
+		// If there are only indexed listeners, informs the ones interested in the event type. 
+		// Otherwise goes through all the listeners so that they are informed in order.
+		SoundListener[] listeners;
+		boolean hasGenericListeners;
+		synchronized (this.typeListeners)
+		{
+			listeners = this.typeListeners.get(e.getType());
+			hasGenericListeners = hasLiveGenericListeners();
+		}
+		if (hasGenericListeners)
+			handleObjects();
+		else
+		{
+			for (SoundListener l : listeners)
+			{
+				// Dead listeners are removed from the index as they are found
+				if (l.getIsDeadStateOperator().getState())
+					removeFromIndex(l);
+				else if (l.getListensToSoundEventsOperator().getState())
+					l.onSoundEvent(e);
+			}
+		}
 		// Forgets the status
 		this.lastevent = null;
 	}
@@ -102,6 +204,91 @@ public class SoundListenerHandler extends Handler<SoundListener> implements Soun
 	}
 	
 	
+	// OTHER METHODS	-------------------------
+	
+	// Indexes a new listener by its type or marks it generic. Known listeners are skipped.
+	private void register(SoundListener l)
+	{
+		synchronized (this.typeListeners)
+		{
+			if (this.indexedListeners.containsKey(l) || this.genericListeners.contains(l))
+				return;
+			
+			EventSelector<SoundEvent> selector = l.getSoundEventSelector();
+			if (selector instanceof SoundEventTypeSelector)
+			{
+				SoundEventType type = ((SoundEventTypeSelector) selector).getType();
+				this.indexedListeners.put(l, type);
+				SoundListener[] previous = this.typeListeners.get(type);
+				SoundListener[] listeners = Arrays.copyOf(previous, previous.length + 1);
+				listeners[previous.length] = l;
+				this.typeListeners.put(type, listeners);
+			}
+			else
+				this.genericListeners.add(l);
+		}
+	}
+	
+	// Forgets the generic listeners that have died, so that they don't keep the handler 
+	// from using the index. Must be called while holding the lock.
+	private boolean hasLiveGenericListeners()
+	{
+		if (this.genericListeners.isEmpty())
+			return false;
+		
+		Iterator<SoundListener> iterator = this.genericListeners.iterator();
+		while (iterator.hasNext())
+		{
+			if (iterator.next().getIsDeadStateOperator().getState())
+				iterator.remove();
+		}
+		return !this.genericListeners.isEmpty();
+	}
+	
+	// Returns null if the listener isn't indexed
+	private SoundEventType getIndexedType(SoundListener l)
+	{
+		synchronized (this.typeListeners)
+		{
+			return this.indexedListeners.get(l);
+		}
+	}
+	
+	private void removeFromIndex(Handled h)
+	{
+		synchronized (this.typeListeners)
+		{
+			this.genericListeners.remove(h);
+			SoundEventType type = this.indexedListeners.remove(h);
+			if (type == null)
+				return;
+			
+			SoundListener[] previous = this.typeListeners.get(type);
+			for (int i = 0; i < previous.length; i++)
+			{
+				if (previous[i] == h)
+				{
+					SoundListener[] listeners = new SoundListener[previous.length - 1];
+					System.arraycopy(previous, 0, listeners, 0, i);
+					System.arraycopy(previous, i + 1, listeners, i, listeners.length - i);
+					this.typeListeners.put(type, listeners);
+					return;
+				}
+			}
+		}
+	}
+	
+	private static Map<SoundEventType, SoundListener[]> createTypeIndex()
+	{
+		Map<SoundEventType, SoundListener[]> index = new EnumMap<>(SoundEventType.class);
+		for (SoundEventType type : SoundEventType.values())
+		{
+			index.put(type, new SoundListener[0]);
+		}
+		return index;
+	}
+	
+	
 	// SUBCLASSES	-----------------------------
 	
 	private class AnyListensToSoundsOperator extends ForAnyHandledsOperator
@@ -0,0 +1,468 @@
+package flux_sound;
+
+import java.lang.management.ManagementFactory;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * SoundMetrics collects runtime statistics about the playback. The sounds and the audio 
+ * threads record the events here without locking. Only reading, resetting and registering 
+ * the sounds synchronize. The numbers can be read directly or through JMX once 
+ * {@link #registerMBean()} has been called.
+ * 
+ * @author Mikko Hilpinen
+ * @since 17.10.2026
+ */
+public class SoundMetrics
+{
+	// ATTRIBUTES	-----------------------------
+	
+	/**
+	 * The name the metrics are registered with in the platform MBean server
+	 */
+	public static final String OBJECT_NAME = "flux_sound:type=SoundMetrics";
+	
+	private static final Map<Sound, String> sounds = 
+			Collections.synchronizedMap(new WeakHashMap<Sound, String>());
+	private static final AtomicLong plays = new AtomicLong();
+	private static final AtomicLong lineFailures = new AtomicLong();
+	private static final AtomicLong underruns = new AtomicLong();
+	private static final AtomicLong bytesRead = new AtomicLong();
+	private static final AtomicLong cacheHits = new AtomicLong();
+	private static final AtomicLong cacheMisses = new AtomicLong();
+	private static final LatencyHistogram startLatency = new LatencyHistogram();
+	// Each sound keeps its own start latencies. The sounds are listed here when their first 
+	// latency is recorded.
+	private static final Queue<WeakReference<Sound>> latencySounds = 
+			new ConcurrentLinkedQueue<>();
+	
+	private static long lastRatePlays = 0;
+	private static long lastRateNanos = System.nanoTime();
+	private static double lastRate = 0;
+	
+	
+	// CONSTRUCTOR	-----------------------------
+	
+	private SoundMetrics()
+	{
+		// The interface is static
+	}
+	
+	
+	// GETTERS & SETTERS	---------------------
+	
+	/**
+	 * @return How many voices the registered sounds currently have
+	 */
+	public static int getActiveVoices()
+	{
+		int voices = 0;
+		for (int count : getActiveVoicesPerBank().values())
+		{
+			voices += count;
+		}
+		return voices;
+	}
+	
+	/**
+	 * @return How many voices each registered sound currently has, keyed by "bank/sound"
+	 */
+	public static Map<String, Integer> getActiveVoicesPerSound()
+	{
+		Map<String, Integer> voices = new HashMap<>();
+		for (Map.Entry<Sound, String> entry : getRegisteredSounds())
+		{
+			String key = entry.getValue() + "/" + entry.getKey().getName();
+			Integer previous = voices.get(key);
+			voices.put(key, entry.getKey().getActiveInstanceCount() + 
+					(previous == null ? 0 : previous));
+		}
+		return voices;
+	}
+	
+	/**
+	 * @return How many voices the registered sounds of each bank currently have
+	 */
+	public static Map<String, Integer> getActiveVoicesPerBank()
+	{
+		Map<String, Integer> voices = new HashMap<>();
+		for (Map.Entry<Sound, String> entry : getRegisteredSounds())
+		{
+			Integer previous = voices.get(entry.getValue());
+			voices.put(entry.getValue(), entry.getKey().getActiveInstanceCount() + 
+					(previous == null ? 0 : previous));
+		}
+		return voices;
+	}
+	
+	/**
+	 * @return How many times sounds have been started
+	 */
+	public static long getPlayCount()
+	{
+		return plays.get();
+	}
+	
+	/**
+	 * @return How many sounds have been started per second since the previous call. If the 
+	 * previous call was less than a second ago, its result is returned again.
+	 */
+	public static synchronized double getPlaysPerSecond()
+	{
+		long now = System.nanoTime();
+		long elapsed = now - lastRateNanos;
+		if (elapsed >= 1000000000L)
+		{
+			long count = getPlayCount();
+			lastRate = (count - lastRatePlays) / (elapsed / 1000000000.0);
+			lastRatePlays = count;
+			lastRateNanos = now;
+		}
+		return lastRate;
+	}
+	
+	/**
+	 * @return How many times an audio line or a midi device couldn't be opened
+	 */
+	public static long getLineOpenFailures()
+	{
+		return lineFailures.get();
+	}
+	
+	/**
+	 * @return How many times the output has run out of audio to play
+	 */
+	public static long getUnderruns()
+	{
+		return underruns.get();
+	}
+	
+	/**
+	 * @return How many bytes of samples the playing voices have read
+	 */
+	public static long getBytesRead()
+	{
+		return bytesRead.get();
+	}
+	
+	/**
+	 * @return How large a portion of the sample requests were found from the memory [0, 1]. 
+	 * 0 if there have been no requests.
+	 */
+	public static double getCacheHitRatio()
+	{
+		long hits = cacheHits.get();
+		long total = hits + cacheMisses.get();
+		if (total == 0)
+			return 0;
+		return hits / (double) total;
+	}
+	
+	/**
+	 * @return The time from a play request to the first mixed sample
+	 */
+	public static LatencyHistogram getStartLatency()
+	{
+		return startLatency;
+	}
+	
+	
+	/**
+	 * Finds the start latencies of a single sound
+	 * @param sound A sound
+	 * @return The start latencies recorded for the sound
+	 */
+	public static StartLatencyStats getStartLatency(Sound sound)
+	{
+		return sound.getStartLatencyStats();
+	}
+	
+	/**
+	 * @return The start latency percentiles (50, 95 and 99) of each sound that has been 
+	 * played, in microseconds. The keys have the format "sound stage pXX".
+	 */
+	public static Map<String, Long> getStartLatencyPercentiles()
+	{
+		Map<String, Long> percentiles = new HashMap<>();
+		for (Sound sound : getLatencySounds())
+		{
+			StartLatencyStats stats = sound.getStartLatencyStats();
+			if (stats.isEmpty())
+				continue;
+			
+			for (StartStage stage : StartStage.values())
+			{
+				String key = sound.getName() + " " + stage + " p";
+				percentiles.put(key + "50", stats.getPercentile(stage, 0.5) / 1000);
+				percentiles.put(key + "95", stats.getPercentile(stage, 0.95) / 1000);
+				percentiles.put(key + "99", stats.getPercentile(stage, 0.99) / 1000);
+			}
+		}
+		return percentiles;
+	}
+	
+	
+	// OTHER METHODS	-------------------------
+	
+	/**
+	 * Registers the metrics to the platform MBean server so that they can be read with JMX 
+	 * tools. Calling this more than once has no effect.
+	 */
+	public static synchronized void registerMBean()
+	{
+		try
+		{
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			ObjectName name = new ObjectName(OBJECT_NAME);
+			if (!server.isRegistered(name))
+				server.registerMBean(new MetricsBean(), name);
+		}
+		catch (JMException e)
+		{
+			System.err.println("Failed to register the sound metrics");
+			e.printStackTrace();
+		}
+	}
+	
+	/**
+	 * Registers a sound so that its voices are included in the voice counts. The sounds are 
+	 * forgotten once they are no longer used.
+	 * @param bankName The name of the bank the sound belongs to
+	 * @param sound The sound that is registered
+	 */
+	public static void registerSound(String bankName, Sound sound)
+	{
+		sounds.put(sound, bankName);
+	}
+	
+	/**
+	 * Records the start of a sound
+	 */
+	public static void recordPlay()
+	{
+		plays.incrementAndGet();
+	}
+	
+	/**
+	 * Records a failure to open an audio line or a midi device
+	 */
+	public static void recordLineOpenFailure()
+	{
+		lineFailures.incrementAndGet();
+	}
+	
+	/**
+	 * Records an output running out of audio to play
+	 */
+	public static void recordUnderrun()
+	{
+		underruns.incrementAndGet();
+	}
+	
+	/**
+	 * Records samples being read for playback
+	 * @param bytes How many bytes of samples were read
+	 */
+	public static void recordBytesRead(long bytes)
+	{
+		bytesRead.addAndGet(bytes);
+	}
+	
+	/**
+	 * Records a sample request that was found from the memory
+	 */
+	public static void recordCacheHit()
+	{
+		cacheHits.incrementAndGet();
+	}
+	
+	/**
+	 * Records a sample request that had to be read from the file
+	 */
+	public static void recordCacheMiss()
+	{
+		cacheMisses.incrementAndGet();
+	}
+	
+	/**
+	 * Records the time it took from a play request to the first mixed sample
+	 * @param nanos The start latency in nanoseconds
+	 */
+	public static void recordStartLatency(long nanos)
+	{
+		startLatency.record(nanos);
+	}
+	
+	/**
+	 * Records the time it took for a sound to reach a start stage
+	 * @param sound The sound that is starting
+	 * @param stage The stage that was reached
+	 * @param nanos How many nanoseconds it took from the play request to reach the stage
+	 */
+	public static void recordStartStage(Sound sound, StartStage stage, long nanos)
+	{
+		StartLatencyStats stats = sound.getStartLatencyStats();
+		stats.record(stage, nanos);
+		if (stats.markListed())
+			latencySounds.add(new WeakReference<>(sound));
+		SoundJournal.recordStartStage(sound, stage, nanos);
+	}
+	
+	/**
+	 * Resets all the counters and histograms. The registered sounds are kept.
+	 */
+	public static synchronized void reset()
+	{
+		plays.set(0);
+		lineFailures.set(0);
+		underruns.set(0);
+		bytesRead.set(0);
+		cacheHits.set(0);
+		cacheMisses.set(0);
+		startLatency.reset();
+		for (Sound sound : getLatencySounds())
+		{
+			sound.getStartLatencyStats().reset();
+		}
+		
+		lastRatePlays = 0;
+		lastRateNanos = System.nanoTime();
+		lastRate = 0;
+	}
+	
+	// Also forgets the sounds that are no longer used
+	private static List<Sound> getLatencySounds()
+	{
+		List<Sound> listed = new ArrayList<>();
+		Iterator<WeakReference<Sound>> iterator = latencySounds.iterator();
+		while (iterator.hasNext())
+		{
+			Sound sound = iterator.next().get();
+			if (sound == null)
+				iterator.remove();
+			else
+				listed.add(sound);
+		}
+		return listed;
+	}
+	
+	private static List<Map.Entry<Sound, String>> getRegisteredSounds()
+	{
+		// Takes a snapshot so that the sounds can be queried without holding the lock
+		synchronized (sounds)
+		{
+			return new ArrayList<>(sounds.entrySet());
+		}
+	}
+	
+	
+	// SUBCLASSES	-----------------------------
+	
+	private static class MetricsBean implements SoundMetricsMXBean
+	{
+		// IMPLEMENTED METHODS	-----------------
+		
+		@Override
+		public int getActiveVoices()
+		{
+			return SoundMetrics.getActiveVoices();
+		}
+		
+		@Override
+		public Map<String, Integer> getActiveVoicesPerSound()
+		{
+			return SoundMetrics.getActiveVoicesPerSound();
+		}
+		
+		@Override
+		public Map<String, Integer> getActiveVoicesPerBank()
+		{
+			return SoundMetrics.getActiveVoicesPerBank();
+		}
+		
+		@Override
+		public long getPlayCount()
+		{
+			return SoundMetrics.getPlayCount();
+		}
+		
+		@Override
+		public double getPlaysPerSecond()
+		{
+			return SoundMetrics.getPlaysPerSecond();
+		}
+		
+		@Override
+		public long getLineOpenFailures()
+		{
+			return SoundMetrics.getLineOpenFailures();
+		}
+		
+		@Override
+		public long getUnderruns()
+		{
+			return SoundMetrics.getUnderruns();
+		}
+		
+		@Override
+		public long getBytesRead()
+		{
+			return SoundMetrics.getBytesRead();
+		}
+		
+		@Override
+		public double getCacheHitRatio()
+		{
+			return SoundMetrics.getCacheHitRatio();
+		}
+		
+		@Override
+		public long getStartLatencyMedianMicros()
+		{
+			return getStartLatency().getPercentile(0.5) / 1000;
+		}
+		
+		@Override
+		public long getStartLatency95thPercentileMicros()
+		{
+			return getStartLatency().getPercentile(0.95) / 1000;
+		}
+		
+		@Override
+		public long getStartLatency99thPercentileMicros()
+		{
+			return getStartLatency().getPercentile(0.99) / 1000;
+		}
+		
+		@Override
+		public long[] getStartLatencyHistogram()
+		{
+			return getStartLatency().getBucketCounts();
+		}
+		
+		@Override
+		public Map<String, Long> getStartLatencyPercentilesMicros()
+		{
+			return SoundMetrics.getStartLatencyPercentiles();
+		}
+		
+		@Override
+		public void reset()
+		{
+			SoundMetrics.reset();
+		}
+	}
+}
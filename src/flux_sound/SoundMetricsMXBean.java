@@ -0,0 +1,97 @@
+package flux_sound;
+
+import java.util.Map;
+
+/**
+ * This is the management interface through which the playback metrics are published over 
+ * JMX
+ * 
+ * @author Mikko Hilpinen
+ * @since 17.10.2026
+ * @see SoundMetrics#registerMBean()
+ */
+public interface SoundMetricsMXBean
+{
+	/**
+	 * @return How many voices are currently playing or paused
+	 */
+	public int getActiveVoices();
+	
+	/**
+	 * @return How many voices each registered sound currently has, keyed by 
+	 * "bank/sound"
+	 */
+	public Map<String, Integer> getActiveVoicesPerSound();
+	
+	/**
+	 * @return How many voices the sounds of each bank currently have
+	 */
+	public Map<String, Integer> getActiveVoicesPerBank();
+	
+	/**
+	 * @return How many times sounds have been started
+	 */
+	public long getPlayCount();
+	
+	/**
+	 * @return How many sounds have been started per second, measured since the previous 
+	 * query (at least a second ago)
+	 */
+	public double getPlaysPerSecond();
+	
+	/**
+	 * @return How many times an audio line or a midi device couldn't be opened
+	 */
+	public long getLineOpenFailures();
+	
+	/**
+	 * @return How many times the output has run out of audio to play
+	 */
+	public long getUnderruns();
+	
+	/**
+	 * @return How many bytes of samples the playing voices have read
+	 */
+	public long getBytesRead();
+	
+	/**
+	 * @return How large a portion of the sample requests were found from the memory [0, 1]
+	 */
+	public double getCacheHitRatio();
+	
+	/**
+	 * @return The median time from a play request to the first mixed sample in 
+	 * microseconds
+	 */
+	public long getStartLatencyMedianMicros();
+	
+	/**
+	 * @return The 95th percentile of the time from a play request to the first mixed 
+	 * sample in microseconds
+	 */
+	public long getStartLatency95thPercentileMicros();
+	
+	/**
+	 * @return The 99th percentile of the time from a play request to the first mixed 
+	 * sample in microseconds
+	 */
+	public long getStartLatency99thPercentileMicros();
+	
+	/**
+	 * @return The counts of the start latency histogram buckets
+	 * @see LatencyHistogram#getBucketCounts()
+	 */
+	public long[] getStartLatencyHistogram();
+	
+	/**
+	 * @return The start latency percentiles of each played sound for each start stage in 
+	 * microseconds, keyed by "sound stage pXX"
+	 * @see StartStage
+	 */
+	public Map<String, Long> getStartLatencyPercentilesMicros();
+	
+	/**
+	 * Resets all the counters and histograms
+	 */
+	public void reset();
+}
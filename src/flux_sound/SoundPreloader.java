@@ -0,0 +1,170 @@
+package flux_sound;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * SoundPreloader loads sounds in parallel in the background so that activating a bank 
+ * doesn't block the game while each sound is read and decoded. The sound banks submit 
+ * their sounds here as they are constructed. The progress can be polled, for example, to 
+ * draw a loading bar.
+ * 
+ * @author Mikko Hilpinen
+ * @since 17.10.2026
+ */
+public class SoundPreloader
+{
+	// ATTRIBUTES	-----------------------------
+	
+	private static final AtomicInteger submitted = new AtomicInteger();
+	private static final AtomicInteger completed = new AtomicInteger();
+	private static final Object completionLock = new Object();
+	private static ForkJoinPool pool = null;
+	private static volatile boolean enabled = true;
+	
+	
+	// CONSTRUCTOR	-----------------------------
+	
+	private SoundPreloader()
+	{
+		// The interface is static
+	}
+	
+	
+	// GETTERS & SETTERS	---------------------
+	
+	/**
+	 * @return Are the sounds loaded in the background
+	 */
+	public static boolean isEnabled()
+	{
+		return enabled;
+	}
+	
+	/**
+	 * Changes whether the sounds are loaded in the background
+	 * @param enabled Should the sounds be loaded in the background (default). If false, 
+	 * the sounds are loaded on the thread that submits them.
+	 */
+	public static void setEnabled(boolean enabled)
+	{
+		SoundPreloader.enabled = enabled;
+	}
+	
+	/**
+	 * @return How many sounds have been submitted for loading
+	 */
+	public static int getSubmittedCount()
+	{
+		return submitted.get();
+	}
+	
+	/**
+	 * @return How many of the submitted sounds have been loaded
+	 */
+	public static int getCompletedCount()
+	{
+		return completed.get();
+	}
+	
+	/**
+	 * @return How large a portion of the submitted sounds have been loaded [0, 1]
+	 */
+	public static double getProgress()
+	{
+		int total = getSubmittedCount();
+		if (total == 0)
+			return 1;
+		return getCompletedCount() / (double) total;
+	}
+	
+	/**
+	 * @return Have all the submitted sounds been loaded
+	 */
+	public static boolean isComplete()
+	{
+		return getCompletedCount() >= getSubmittedCount();
+	}
+	
+	
+	// OTHER METHODS	-------------------------
+	
+	/**
+	 * Loads the sound in the background. The sound can be played before the loading 
+	 * completes, in which case the play loads the sound itself.
+	 * @param sound The sound that should be loaded
+	 * @see Sound#preload()
+	 */
+	public static void preload(final Sound sound)
+	{
+		if (!isEnabled())
+		{
+			sound.preload();
+			return;
+		}
+		
+		submitted.incrementAndGet();
+		getPool().execute(new Runnable()
+		{
+			@Override
+			public void run()
+			{
+				try
+				{
+					sound.preload();
+				}
+				catch (RuntimeException e)
+				{
+					System.err.println("Failed to preload " + sound.getName());
+					e.printStackTrace();
+				}
+				finally
+				{
+					completed.incrementAndGet();
+					synchronized (completionLock)
+					{
+						completionLock.notifyAll();
+					}
+				}
+			}
+		});
+	}
+	
+	/**
+	 * Waits until all the submitted sounds have been loaded
+	 * @param timeoutMillis How many milliseconds the method waits at most. 0 or less if 
+	 * there is no time limit.
+	 * @return Were all the sounds loaded
+	 * @throws InterruptedException If the thread was interrupted while waiting
+	 */
+	public static boolean awaitCompletion(long timeoutMillis) throws InterruptedException
+	{
+		long deadline = System.currentTimeMillis() + timeoutMillis;
+		synchronized (completionLock)
+		{
+			while (!isComplete())
+			{
+				if (timeoutMillis <= 0)
+					completionLock.wait();
+				else
+				{
+					long remaining = deadline - System.currentTimeMillis();
+					if (remaining <= 0)
+						return false;
+					completionLock.wait(remaining);
+				}
+			}
+		}
+		
+		return true;
+	}
+	
+	private static synchronized ForkJoinPool getPool()
+	{
+		// The worker threads of the pool are daemon threads, so they don't keep the 
+		// program running
+		if (pool == null)
+			pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+		return pool;
+	}
+}
@@ -0,0 +1,124 @@
+package flux_sound;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * StartLatencyStats collects the start latencies of a single sound, stage by stage, so 
+ * that it can be seen where the time between a play request and the first played frame 
+ * goes
+ * 
+ * @author Mikko Hilpinen
+ * @since 17.10.2026
+ * @see SoundMetrics#getStartLatency(Sound)
+ */
+public class StartLatencyStats
+{
+	// ATTRIBUTES	-----------------------------
+	
+	private final Map<StartStage, LatencyHistogram> histograms;
+	private final AtomicBoolean listed = new AtomicBoolean();
+	
+	
+	// CONSTRUCTOR	-----------------------------
+	
+	/**
+	 * Creates new empty statistics
+	 */
+	public StartLatencyStats()
+	{
+		Map<StartStage, LatencyHistogram> histograms = new EnumMap<>(StartStage.class);
+		for (StartStage stage : StartStage.values())
+		{
+			histograms.put(stage, new LatencyHistogram());
+		}
+		this.histograms = Collections.unmodifiableMap(histograms);
+	}
+	
+	
+	// IMPLEMENTED METHODS	---------------------
+	
+	@Override
+	public String toString()
+	{
+		StringBuilder s = new StringBuilder();
+		for (StartStage stage : StartStage.values())
+		{
+			if (s.length() > 0)
+				s.append(", ");
+			s.append(stage + ": p50 " + getPercentile(stage, 0.5) / 1000 + " us, p95 " + 
+					getPercentile(stage, 0.95) / 1000 + " us, p99 " + 
+					getPercentile(stage, 0.99) / 1000 + " us");
+		}
+		return s.toString();
+	}
+	
+	
+	// GETTERS & SETTERS	---------------------
+	
+	/**
+	 * @param stage A start stage
+	 * @return The latencies recorded for the stage
+	 */
+	public LatencyHistogram getHistogram(StartStage stage)
+	{
+		return this.histograms.get(stage);
+	}
+	
+	/**
+	 * @return Has no latency been recorded since the statistics were created or reset
+	 */
+	public boolean isEmpty()
+	{
+		for (LatencyHistogram histogram : this.histograms.values())
+		{
+			if (histogram.getCount() > 0)
+				return false;
+		}
+		return true;
+	}
+	
+	
+	// OTHER METHODS	-------------------------
+	
+	/**
+	 * Records the latency of a stage
+	 * @param stage The stage that was reached
+	 * @param nanos How many nanoseconds it took from the play request to reach the stage
+	 */
+	public void record(StartStage stage, long nanos)
+	{
+		getHistogram(stage).record(nanos);
+	}
+	
+	/**
+	 * Finds a percentile of a stage's latencies
+	 * @param stage A start stage
+	 * @param percentile The percentile [0, 1]
+	 * @return The percentile in nanoseconds
+	 * @see LatencyHistogram#getPercentile(double)
+	 */
+	public long getPercentile(StartStage stage, double percentile)
+	{
+		return getHistogram(stage).getPercentile(percentile);
+	}
+	
+	// Returns true only on the first call so that the statistics are listed only once
+	boolean markListed()
+	{
+		return this.listed.compareAndSet(false, true);
+	}
+	
+	/**
+	 * Removes all the recorded latencies
+	 */
+	public void reset()
+	{
+		for (LatencyHistogram histogram : this.histograms.values())
+		{
+			histogram.reset();
+		}
+	}
+}
@@ -0,0 +1,35 @@
+package flux_sound;
+
+/**
+ * Start stages are the steps a sound goes through between a play request and the first 
+ * frame being played. The latency of each stage is measured from the play request.
+ * 
+ * @author Mikko Hilpinen
+ * @since 17.10.2026
+ * @see StartLatencyStats
+ */
+public enum StartStage
+{
+	/**
+	 * The samples have been loaded and can be read
+	 */
+	DECODE_READY,
+	/**
+	 * The output line is open. This is only recorded for the plays that had to wait for 
+	 * the line to open, usually the first play after the line was closed. The other plays 
+	 * have no latency for this stage.
+	 */
+	LINE_OPEN,
+	/**
+	 * The first samples have been mixed
+	 */
+	FIRST_MIX,
+	/**
+	 * The first samples have been written to the output line
+	 */
+	FIRST_WRITE,
+	/**
+	 * The output line has played the first frame of the sound
+	 */
+	FIRST_PLAYED;
+}
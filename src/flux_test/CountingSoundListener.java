@@ -0,0 +1,76 @@
+package flux_test;
+
+import flux_sound.SoundEvent;
+import flux_sound.SoundEvent.SoundEventType;
+import flux_sound.SoundListener;
+import genesis_event.EventSelector;
+import genesis_util.StateOperator;
+
+/**
+ * CountingSoundListener is a test listener that only counts the events of a single type 
+ * it receives. Its selector is a type selector, so the listener handlers index it.
+ *
+ * @author Mikko Hilpinen
+ * @since 17.10.2026
+ */
+public class CountingSoundListener implements SoundListener
+{
+	// ATTRIBUTES	-------------------------
+	
+	private final StateOperator isDeadOperator, listensOperator;
+	private final EventSelector<SoundEvent> selector;
+	private long events;
+	
+	
+	// CONSTRUCTOR	-------------------------
+	
+	/**
+	 * Creates a new listener
+	 * @param type The type of events the listener receives
+	 */
+	public CountingSoundListener(SoundEventType type)
+	{
+		this.isDeadOperator = new StateOperator(false, true);
+		this.listensOperator = new StateOperator(true, true);
+		this.selector = SoundEvent.createEventTypeSelector(type);
+		this.events = 0;
+	}
+	
+	
+	// IMPLEMENTED METHODS	-----------------
+	
+	@Override
+	public StateOperator getIsDeadStateOperator()
+	{
+		return this.isDeadOperator;
+	}
+	
+	@Override
+	public void onSoundEvent(SoundEvent e)
+	{
+		this.events ++;
+	}
+	
+	@Override
+	public StateOperator getListensToSoundEventsOperator()
+	{
+		return this.listensOperator;
+	}
+	
+	@Override
+	public EventSelector<SoundEvent> getSoundEventSelector()
+	{
+		return this.selector;
+	}
+	
+	
+	// GETTERS & SETTERS	-----------------
+	
+	/**
+	 * @return How many events the listener has received
+	 */
+	public long getEventCount()
+	{
+		return this.events;
+	}
+}
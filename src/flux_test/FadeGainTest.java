@@ -0,0 +1,132 @@
+package flux_test;
+
+import flux_wav.NullAudioOutput;
+import flux_wav.WavMixer;
+import flux_wav.WavSound;
+import flux_wav.WavStorageMode;
+
+/**
+ * This class tests that fades change the gain smoothly. A constant tone is faded in, held 
+ * and faded out while the mixer renders into a recording null output. The output limits 
+ * how many frames the mixer can write, so the test doesn't depend on timing. The recorded 
+ * level must rise, then stay flat until the fade out starts, then fall to silence and stay 
+ * silent. The result is printed to the console and the program exits with status 1 if the 
+ * test failed.
+ *
+ * @author Mikko Hilpinen
+ * @since 17.10.2026
+ */
+public class FadeGainTest
+{
+	// ATTRIBUTES	-------------------------
+	
+	// The fade doesn't end at a mixer block boundary
+	private static final int FADE_MILLIS = 23;
+	// 400 milliseconds at the default sample rate
+	private static final int HOLD_FRAMES = 17640;
+	
+	
+	// CONSTRUCTOR	-------------------------
+	
+	private FadeGainTest()
+	{
+		// The interface is static
+	}
+	
+	
+	// MAIN METHOD	-------------------------
+	
+	/**
+	 * Starts the test
+	 * @param args Not used
+	 * @throws InterruptedException If the test is interrupted
+	 */
+	public static void main(String[] args) throws InterruptedException
+	{
+		NullAudioOutput output = new NullAudioOutput(false, true);
+		output.setFrameLimit(0);
+		WavMixer.setDefaultOutput(output);
+		WavMixer mixer = WavMixer.getDefaultMixer();
+		
+		WavSound tone = new WavSound("testTone.wav", "tone", 0, 0);
+		tone.setStorageMode(WavStorageMode.RESIDENT);
+		tone.preload();
+		
+		// Lets the mixer write a fixed amount of audio before the fade out
+		tone.fadeIn(FADE_MILLIS, true, null);
+		output.setFrameLimit(HOLD_FRAMES);
+		output.awaitWrittenFrames(HOLD_FRAMES);
+		tone.fadeOut(FADE_MILLIS);
+		
+		// The mixer stops writing once the faded voice has ended
+		output.setFrameLimit(-1);
+		while (mixer.getVoiceCount() > 0)
+		{
+			Thread.sleep(1);
+		}
+		
+		String error = checkLevels(output.getRecording());
+		if (error == null)
+		{
+			System.out.println("PASSED");
+			System.exit(0);
+		}
+		else
+		{
+			System.out.println("FAILED: " + error);
+			System.exit(1);
+		}
+	}
+	
+	
+	// OTHER METHODS	---------------------
+	
+	// Returns a description of the first problem in the recording or null if there is none
+	private static String checkLevels(byte[] recording)
+	{
+		// Only the left channel is checked since the tone is centered
+		int frames = recording.length / 4;
+		int peak = 0;
+		for (int i = 0; i < frames; i++)
+		{
+			peak = Math.max(peak, leftSample(recording, i));
+		}
+		if (peak == 0)
+			return "The tone was not played";
+		
+		// 0 = rising, 1 = flat at the peak, 2 = falling
+		int phase = 0;
+		int previous = 0;
+		for (int i = 0; i < frames; i++)
+		{
+			int sample = leftSample(recording, i);
+			if (phase == 0)
+			{
+				if (sample < previous)
+					return "The level fell during the fade in at frame " + i;
+				if (sample == peak)
+					phase = 1;
+			}
+			else if (phase == 1)
+			{
+				if (sample > peak)
+					return "The level rose after the fade in at frame " + i;
+				if (sample < peak)
+					phase = 2;
+			}
+			else if (sample > previous)
+				return "The level rose during or after the fade out at frame " + i;
+			
+			previous = sample;
+		}
+		
+		if (phase != 2 || previous != 0)
+			return "The tone didn't fade out to silence";
+		return null;
+	}
+	
+	private static int leftSample(byte[] recording, int frame)
+	{
+		return (short) ((recording[frame * 4] & 0xff) | (recording[frame * 4 + 1] << 8));
+	}
+}
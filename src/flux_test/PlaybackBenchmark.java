@@ -0,0 +1,237 @@
+package flux_test;
+
+import arc_bank.GamePhaseBank;
+import arc_resource.ResourceActivator;
+import flux_sound.SoundEvent;
+import flux_sound.SoundEvent.SoundEventType;
+import flux_sound.SoundListenerHandler;
+import flux_sound.SoundPreloader;
+import flux_wav.NullAudioOutput;
+import flux_wav.WavMixer;
+import flux_wav.WavSampleCache;
+import flux_wav.WavSound;
+import flux_wav.WavSoundBank;
+import flux_wav.WavStorageMode;
+
+/**
+ * This class benchmarks the hot paths of the playback: bank initialization, wav decoding, 
+ * the start of a play, sound event dispatch and mixing with an increasing number of 
+ * voices. The sounds are played through an unthrottled null output, so the benchmark 
+ * runs without an audio device and faster than real time. The results are printed to 
+ * the console so that they can be compared between versions.
+ * 
+ * @author Mikko Hilpinen
+ * @since 17.10.2026
+ */
+public class PlaybackBenchmark
+{
+	// ATTRIBUTES	-------------------------
+	
+	private static final int WARMUP_ROUNDS = 3;
+	private static final int MEASURED_ROUNDS = 5;
+	
+	
+	// CONSTRUCTOR	-------------------------
+	
+	private PlaybackBenchmark()
+	{
+		// The interface is static
+	}
+	
+	
+	// MAIN METHOD	-------------------------
+	
+	/**
+	 * Starts the benchmark
+	 * @param args Not used
+	 */
+	public static void main(String[] args)
+	{
+		// The mixer writes into a null output as fast as it can
+		NullAudioOutput output = new NullAudioOutput(false, false);
+		WavMixer.setDefaultOutput(output);
+		WavMixer.getDefaultMixer().setMaxVoices(0);
+		
+		benchmarkBankInitialization();
+		WavSound sound = WavSoundBank.getSound("test", "test");
+		sound.setStorageMode(WavStorageMode.RESIDENT);
+		
+		benchmarkDecode(sound);
+		benchmarkPlayStart(sound);
+		benchmarkDispatch(sound);
+		for (int voices : new int[] {1, 8, 32, 128, 512})
+		{
+			benchmarkMix(sound, output, voices);
+		}
+	}
+	
+	
+	// OTHER METHODS	---------------------
+	
+	private static void benchmarkBankInitialization()
+	{
+		long started = System.nanoTime();
+		WavSoundBank.initializeWavSoundResources("sounds.txt");
+		GamePhaseBank.initializeGamePhaseResources("phases.txt", "default");
+		ResourceActivator.startPhase(GamePhaseBank.getGamePhase("test"), true);
+		long activated = System.nanoTime();
+		
+		try
+		{
+			SoundPreloader.awaitCompletion(0);
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+		}
+		long loaded = System.nanoTime();
+		
+		System.out.println("Bank initialization: phase started in " + 
+				millis(activated - started) + " ms, sounds loaded in " + 
+				millis(loaded - started) + " ms");
+	}
+	
+	private static void benchmarkDecode(final WavSound sound)
+	{
+		final long[] bytes = new long[1];
+		double nanos = measure(20, new Runnable()
+		{
+			@Override
+			public void run()
+			{
+				WavSampleCache.clear();
+				sound.preload();
+				bytes[0] = WavSampleCache.getByteSize();
+			}
+		});
+		
+		System.out.println("Wav decode: " + millis((long) nanos) + " ms per file, " + 
+				String.format("%.1f", bytes[0] / nanos * 1000) + " MB/s decoded");
+	}
+	
+	private static void benchmarkPlayStart(final WavSound sound)
+	{
+		final WavMixer mixer = WavMixer.getDefaultMixer();
+		final long[] admitted = new long[1];
+		
+		double nanos = measure(200, new Runnable()
+		{
+			@Override
+			public void run()
+			{
+				// Measures how long it takes until the mixer picks up the new voice. The 
+				// voice loops so that it can't end before it is seen.
+				long started = System.nanoTime();
+				sound.loop(0, 0, null);
+				while (mixer.getVoiceCount() == 0)
+				{
+					Thread.yield();
+				}
+				admitted[0] += System.nanoTime() - started;
+				
+				sound.stop();
+				while (mixer.getVoiceCount() > 0)
+				{
+					Thread.yield();
+				}
+			}
+		});
+		
+		System.out.println("Play start: " + micros(admitted[0] / 
+				((WARMUP_ROUNDS + MEASURED_ROUNDS) * 200)) + " us until mixed, " + 
+				micros((long) nanos) + " us per play and stop");
+	}
+	
+	private static void benchmarkDispatch(WavSound sound)
+	{
+		for (int listeners : new int[] {1, 10, 100})
+		{
+			final SoundListenerHandler handler = new SoundListenerHandler(false);
+			for (int i = 0; i < listeners; i++)
+			{
+				handler.add(new CountingSoundListener(i % 2 == 0 ? SoundEventType.START : 
+						SoundEventType.END));
+			}
+			final SoundEvent event = new SoundEvent(sound, SoundEventType.END);
+			
+			double nanos = measure(100000, new Runnable()
+			{
+				@Override
+				public void run()
+				{
+					handler.onSoundEvent(event);
+				}
+			});
+			
+			System.out.println("Event dispatch: " + listeners + " listeners, " + 
+					String.format("%.1f", nanos) + " ns per event");
+		}
+	}
+	
+	private static void benchmarkMix(WavSound sound, NullAudioOutput output, int voices)
+	{
+		for (int i = 0; i < voices; i++)
+		{
+			sound.loop(0, 0, null);
+		}
+		
+		// Measures how many frames the mixer produces in a second
+		long startFrames = output.getWrittenFrames();
+		long started = System.nanoTime();
+		sleep(1000);
+		long frames = output.getWrittenFrames() - startFrames;
+		long duration = System.nanoTime() - started;
+		
+		sound.stop();
+		while (WavMixer.getDefaultMixer().getVoiceCount() > 0)
+		{
+			sleep(1);
+		}
+		
+		double realTimeFactor = frames / WavMixer.DEFAULT_FORMAT.getFrameRate() / 
+				(duration / 1000000000.0);
+		System.out.println("Mix: " + voices + " voices, " + 
+				String.format("%.1f", realTimeFactor) + "x real time");
+	}
+	
+	// Runs the operation in rounds and returns the average nanoseconds per operation in the 
+	// measured rounds
+	private static double measure(int operationsPerRound, Runnable operation)
+	{
+		long total = 0;
+		for (int round = 0; round < WARMUP_ROUNDS + MEASURED_ROUNDS; round++)
+		{
+			long started = System.nanoTime();
+			for (int i = 0; i < operationsPerRound; i++)
+			{
+				operation.run();
+			}
+			if (round >= WARMUP_ROUNDS)
+				total += System.nanoTime() - started;
+		}
+		
+		return total / (double) (MEASURED_ROUNDS * operationsPerRound);
+	}
+	
+	private static void sleep(long millis)
+	{
+		try
+		{
+			Thread.sleep(millis);
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+		}
+	}
+	
+	private static String millis(long nanos)
+	{
+		return String.format("%.2f", nanos / 1000000.0);
+	}
+	
+	private static String micros(long nanos)
+	{
+		return String.format("%.1f", nanos / 1000.0);
+	}
+}
@@ -0,0 +1,93 @@
+package flux_test;
+
+import javax.sound.sampled.AudioFormat;
+
+import arc_bank.GamePhaseBank;
+import arc_resource.ResourceActivator;
+import flux_sound.SoundPreloader;
+import flux_wav.NullAudioOutput;
+import flux_wav.WavMixer;
+import flux_wav.WavSound;
+import flux_wav.WavSoundBank;
+
+/**
+ * This class tests that the sounds of a bank loaded with sample normalization are decoded 
+ * into the mixer's format. The test bank contains a stereo sound that already is in the 
+ * mixer's format and a mono sound with a lower sample rate. The result is printed to the 
+ * console and the program exits with status 1 if the test failed.
+ *
+ * @author Mikko Hilpinen
+ * @since 17.10.2026
+ */
+public class SampleNormalizationTest
+{
+	// CONSTRUCTOR	-------------------------
+	
+	private SampleNormalizationTest()
+	{
+		// The interface is static
+	}
+	
+	
+	// MAIN METHOD	-------------------------
+	
+	/**
+	 * Starts the test
+	 * @param args Not used
+	 */
+	public static void main(String[] args)
+	{
+		// No audio device is needed
+		WavMixer.setDefaultOutput(new NullAudioOutput(false, false));
+		WavSoundBank.setNormalizesSamples(true);
+		
+		WavSoundBank.initializeWavSoundResources("sounds.txt");
+		GamePhaseBank.initializeGamePhaseResources("phases.txt", "default");
+		ResourceActivator.startPhase(GamePhaseBank.getGamePhase("test"), true);
+		try
+		{
+			SoundPreloader.awaitCompletion(0);
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+			return;
+		}
+		
+		AudioFormat mixerFormat = WavMixer.getDefaultMixer().getFormat();
+		boolean passed = true;
+		for (String soundName : new String[] {"test", "mono"})
+		{
+			WavSound sound = WavSoundBank.getSound("test", soundName);
+			AudioFormat format = sound.getSampleFormat();
+			System.out.println(soundName + ": " + format);
+			
+			if (!sound.isNormalized() || !isMixerFormat(format, mixerFormat))
+			{
+				System.out.println("FAILED: " + soundName + " is not in the mixer's format " + 
+						mixerFormat);
+				passed = false;
+			}
+		}
+		
+		if (passed)
+		{
+			System.out.println("PASSED");
+			System.exit(0);
+		}
+		else
+			System.exit(1);
+	}
+	
+	
+	// OTHER METHODS	---------------------
+	
+	private static boolean isMixerFormat(AudioFormat format, AudioFormat mixerFormat)
+	{
+		return format != null && format.getEncoding().equals(mixerFormat.getEncoding()) && 
+				format.getSampleRate() == mixerFormat.getSampleRate() && 
+				format.getChannels() == mixerFormat.getChannels() && 
+				format.getSampleSizeInBits() == mixerFormat.getSampleSizeInBits() && 
+				format.isBigEndian() == mixerFormat.isBigEndian();
+	}
+}
@@ -0,0 +1,162 @@
+package flux_test;
+
+import java.lang.management.ManagementFactory;
+
+import flux_sound.Sound;
+import flux_sound.SoundEvent.SoundEventType;
+
+/**
+ * This class tests that dispatching sound events doesn't allocate any memory once the 
+ * program has warmed up. A silent sound is played and stopped repeatedly while listeners 
+ * receive its events, and the memory allocated by the thread is measured. The result is 
+ * printed to the console and the program exits with status 1 if the test failed.
+ *
+ * @author Mikko Hilpinen
+ * @since 17.10.2026
+ */
+public class SoundEventAllocationTest
+{
+	// ATTRIBUTES	-------------------------
+	
+	private static final int LISTENERS = 20;
+	private static final int WARMUP_PLAYS = 200000;
+	private static final int MEASURED_PLAYS = 100000;
+	
+	
+	// CONSTRUCTOR	-------------------------
+	
+	private SoundEventAllocationTest()
+	{
+		// The interface is static
+	}
+	
+	
+	// MAIN METHOD	-------------------------
+	
+	/**
+	 * Starts the test
+	 * @param args Not used
+	 */
+	public static void main(String[] args)
+	{
+		if (!(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean))
+		{
+			System.out.println("Allocation measurement is not supported by this JVM");
+			return;
+		}
+		com.sun.management.ThreadMXBean threads = 
+				(com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		if (!threads.isThreadAllocatedMemorySupported())
+		{
+			System.out.println("Allocation measurement is not supported by this JVM");
+			return;
+		}
+		threads.setThreadAllocatedMemoryEnabled(true);
+		
+		SilentSound sound = new SilentSound();
+		CountingSoundListener[] listeners = new CountingSoundListener[LISTENERS];
+		for (int i = 0; i < listeners.length; i++)
+		{
+			listeners[i] = new CountingSoundListener(i % 2 == 0 ? SoundEventType.START : 
+					SoundEventType.END);
+			sound.getListenerHandler().add(listeners[i]);
+		}
+		
+		// Warms up so that the measured dispatches are compiled
+		playAndStop(sound, WARMUP_PLAYS);
+		
+		long threadId = Thread.currentThread().getId();
+		long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+		playAndStop(sound, MEASURED_PLAYS);
+		long allocated = threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+		
+		// Each play and stop dispatches two events
+		long expectedEvents = (WARMUP_PLAYS + MEASURED_PLAYS) * (long) LISTENERS;
+		long receivedEvents = 0;
+		for (CountingSoundListener listener : listeners)
+		{
+			receivedEvents += listener.getEventCount();
+		}
+		
+		System.out.println("Dispatched " + MEASURED_PLAYS * 2 + " events to " + LISTENERS + 
+				" listeners, " + allocated + " bytes allocated (" + 
+				String.format("%.3f", allocated / (MEASURED_PLAYS * 2.0)) + " per event)");
+		String error = null;
+		if (receivedEvents != expectedEvents)
+			error = "The listeners received " + receivedEvents + " events instead of " + 
+					expectedEvents;
+		// The measurement itself may allocate a few bytes
+		else if (allocated > 1024)
+			error = "The dispatch allocates memory";
+		
+		if (error == null)
+		{
+			System.out.println("PASSED");
+			System.exit(0);
+		}
+		else
+		{
+			System.out.println("FAILED: " + error);
+			System.exit(1);
+		}
+	}
+	
+	
+	// OTHER METHODS	---------------------
+	
+	private static void playAndStop(Sound sound, int times)
+	{
+		for (int i = 0; i < times; i++)
+		{
+			sound.play(null);
+			sound.stop();
+		}
+	}
+	
+	
+	// SUBCLASSES	------------------------
+	
+	// A sound that doesn't play anything but still creates the sound events
+	private static class SilentSound extends Sound
+	{
+		// CONSTRUCTOR	--------------------
+		
+		public SilentSound()
+		{
+			super("silent");
+		}
+		
+		
+		// IMPLEMENTED METHODS	--------------
+		
+		@Override
+		protected void playSound()
+		{
+			// Nothing is played
+		}
+		
+		@Override
+		protected void loopSound()
+		{
+			// Nothing is played
+		}
+		
+		@Override
+		protected void stopSound()
+		{
+			// Nothing is played
+		}
+		
+		@Override
+		public void pause()
+		{
+			// Nothing is played
+		}
+		
+		@Override
+		public void unpause()
+		{
+			// Nothing is played
+		}
+	}
+}
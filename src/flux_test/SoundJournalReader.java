@@ -0,0 +1,200 @@
+package flux_test;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import flux_sound.SoundEvent.SoundEventType;
+import flux_sound.SoundJournal;
+import flux_sound.StartStage;
+
+/**
+ * This class reads a journal written by {@link SoundJournal} and prints a summary of it: 
+ * how many events of each type were recorded, how many sounds were playing at the same 
+ * time at the peak, both in total and per sound, and the start latency percentiles of each 
+ * start stage. The playing instances are tracked by their voice ids. An end without a 
+ * voice id ends all instances of the sound and a stolen voice counts as ended.
+ *
+ * @author Mikko Hilpinen
+ * @since 17.10.2026
+ */
+public class SoundJournalReader
+{
+	// CONSTRUCTOR	-------------------------
+	
+	private SoundJournalReader()
+	{
+		// The interface is static
+	}
+	
+	
+	// MAIN METHOD	-------------------------
+	
+	/**
+	 * Reads a journal and prints its summary
+	 * @param args The path of the journal file
+	 */
+	public static void main(String[] args)
+	{
+		if (args.length < 1)
+		{
+			System.out.println("Usage: SoundJournalReader <journal file>");
+			return;
+		}
+		
+		try (DataInputStream input = new DataInputStream(new BufferedInputStream( 
+				new FileInputStream(args[0]))))
+		{
+			summarize(input);
+		}
+		catch (IOException e)
+		{
+			System.err.println("Failed to read the journal " + args[0]);
+			e.printStackTrace();
+		}
+	}
+	
+	
+	// OTHER METHODS	---------------------
+	
+	private static void summarize(DataInputStream input) throws IOException
+	{
+		// The header takes as much space as a record
+		if (input.readInt() != SoundJournal.MAGIC)
+			throw new IOException("The file is not a sound journal");
+		int version = input.readInt();
+		if (version != SoundJournal.VERSION)
+			throw new IOException("Unsupported journal version " + version);
+		long records = input.readLong();
+		input.skipBytes(SoundJournal.RECORD_BYTES - 16);
+		
+		Map<Integer, String> names = new HashMap<>();
+		Map<SoundEventType, Long> eventCounts = new EnumMap<>(SoundEventType.class);
+		Map<StartStage, List<Long>> latencies = new EnumMap<>(StartStage.class);
+		Map<Integer, Set<Long>> playing = new HashMap<>();
+		Map<Integer, Integer> peaks = new HashMap<>();
+		int totalPlaying = 0, totalPeak = 0;
+		long firstTimestamp = -1, lastTimestamp = -1, peakTimestamp = -1;
+		
+		byte[] nameBuffer = new byte[SoundJournal.RECORD_BYTES - 8];
+		for (long i = 0; i < records; i++)
+		{
+			int soundId = input.readInt();
+			short kind = input.readShort();
+			
+			if (kind == SoundJournal.KIND_SOUND)
+			{
+				int length = input.readShort();
+				input.readFully(nameBuffer);
+				names.put(soundId, new String(nameBuffer, 0, length, StandardCharsets.UTF_8));
+				continue;
+			}
+			
+			short type = input.readShort();
+			long timestamp = input.readLong();
+			long value = input.readLong();
+			long voiceId = input.readLong();
+			if (firstTimestamp < 0)
+				firstTimestamp = timestamp;
+			lastTimestamp = timestamp;
+			
+			if (kind == SoundJournal.KIND_START_STAGE)
+			{
+				StartStage stage = StartStage.values()[type];
+				if (!latencies.containsKey(stage))
+					latencies.put(stage, new ArrayList<Long>());
+				latencies.get(stage).add(value);
+				continue;
+			}
+			
+			SoundEventType eventType = SoundEventType.values()[type];
+			Long count = eventCounts.get(eventType);
+			eventCounts.put(eventType, count == null ? 1 : count + 1);
+			
+			// Each start adds a playing voice and each end or steal removes one. An end 
+			// without a voice id ends all voices of the sound.
+			Set<Long> voices = playing.get(soundId);
+			if (voices == null)
+			{
+				voices = new HashSet<>();
+				playing.put(soundId, voices);
+			}
+			int voicesBefore = voices.size();
+			if (eventType == SoundEventType.START)
+				voices.add(voiceId);
+			else if (eventType == SoundEventType.END && voiceId < 0)
+				voices.clear();
+			else if (eventType == SoundEventType.END || 
+					eventType == SoundEventType.VOICE_STOLEN)
+				voices.remove(voiceId);
+			else
+				continue;
+			
+			Integer soundPeak = peaks.get(soundId);
+			if (soundPeak == null || voices.size() > soundPeak)
+				peaks.put(soundId, voices.size());
+			
+			totalPlaying += voices.size() - voicesBefore;
+			if (totalPlaying > totalPeak)
+			{
+				totalPeak = totalPlaying;
+				peakTimestamp = timestamp;
+			}
+		}
+		
+		System.out.println(records + " records, " + names.size() + " sounds, " + 
+				seconds(lastTimestamp - firstTimestamp) + " s");
+		
+		System.out.println();
+		System.out.println("Events:");
+		for (SoundEventType type : eventCounts.keySet())
+		{
+			System.out.println("\t" + type + "\t" + eventCounts.get(type));
+		}
+		
+		System.out.println();
+		System.out.println("Concurrency peak: " + totalPeak + " sounds at " + 
+				seconds(peakTimestamp - firstTimestamp) + " s");
+		for (Integer soundId : peaks.keySet())
+		{
+			System.out.println("\t" + names.get(soundId) + "\t" + peaks.get(soundId));
+		}
+		
+		System.out.println();
+		System.out.println("Start latency (us):\tp50\tp95\tp99\tmax");
+		for (StartStage stage : latencies.keySet())
+		{
+			List<Long> values = latencies.get(stage);
+			Collections.sort(values);
+			System.out.println("\t" + stage + "\t" + micros(percentile(values, 0.5)) + "\t" + 
+					micros(percentile(values, 0.95)) + "\t" + micros(percentile(values, 0.99)) + 
+					"\t" + micros(values.get(values.size() - 1)));
+		}
+	}
+	
+	private static long percentile(List<Long> sorted, double p)
+	{
+		int index = (int) Math.ceil(p * sorted.size()) - 1;
+		return sorted.get(Math.max(0, Math.min(sorted.size() - 1, index)));
+	}
+	
+	private static String seconds(long nanos)
+	{
+		return String.format("%.3f", nanos / 1000000000.0);
+	}
+	
+	private static String micros(long nanos)
+	{
+		return String.format("%.1f", nanos / 1000.0);
+	}
+}
@@ -0,0 +1,273 @@
+package flux_test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongBinaryOperator;
+
+import flux_sound.LatencyHistogram;
+import flux_sound.SoundMetrics;
+import flux_wav.MixerThreadMode;
+import flux_wav.NullAudioOutput;
+import flux_wav.WavMixer;
+import flux_wav.WavSound;
+import flux_wav.WavStorageMode;
+
+/**
+ * This class compares the cost of playing each voice on its own platform thread and on its 
+ * own virtual thread with playing all the voices on the shared wav mixer. For the thread 
+ * per voice cases, the output line is simulated by blocking each write until the written 
+ * block would have been played. The mixer plays a looping test sound through a real time 
+ * null output, on the thread mode given as the second argument, so no sound card is 
+ * needed. The results are printed to the console.
+ * 
+ * @author Mikko Hilpinen
+ * @since 17.10.2026
+ */
+public class VoiceThreadBenchmark
+{
+	// ATTRIBUTES	-------------------------
+	
+	private static final int BLOCK_FRAMES = 1024;
+	private static final float SAMPLE_RATE = 44100;
+	private static final long BLOCK_NANOS = (long) (BLOCK_FRAMES * 1000000000L / SAMPLE_RATE);
+	
+	private static final LongBinaryOperator MAX = new LongBinaryOperator()
+	{
+		@Override
+		public long applyAsLong(long left, long right)
+		{
+			return Math.max(left, right);
+		}
+	};
+	
+	
+	// CONSTRUCTOR	-------------------------
+	
+	private VoiceThreadBenchmark()
+	{
+		// The interface is static
+	}
+	
+	
+	// MAIN METHOD	-------------------------
+	
+	/**
+	 * Starts the benchmark
+	 * @param args How many seconds of audio each voice plays (optional, default = 2) and 
+	 * the thread mode of the mixer (optional, platform by default)
+	 * @throws InterruptedException If the benchmark is interrupted
+	 */
+	public static void main(String[] args) throws InterruptedException
+	{
+		double seconds = args.length > 0 ? Double.parseDouble(args[0]) : 2;
+		int blocks = (int) Math.ceil(seconds * 1000000000L / BLOCK_NANOS);
+		MixerThreadMode mixerMode = MixerThreadMode.PLATFORM;
+		if (args.length > 1)
+		{
+			mixerMode = MixerThreadMode.parseFromString(args[1]);
+			if (mixerMode == null)
+			{
+				System.err.println("Unknown thread mode " + args[1]);
+				System.exit(1);
+			}
+		}
+		
+		boolean virtualSupported = MixerThreadMode.VIRTUAL.isSupported();
+		if (!virtualSupported)
+			System.out.println("Virtual threads are not supported (Java 21+ required), " + 
+					"skipping them");
+		
+		System.out.println("mode\tvoices\tstart ms\ttotal ms\tavg late ms\tmax late ms\t" + 
+				"peak threads");
+		int[] voiceCounts = new int[] {10, 100, 1000};
+		for (int voices : voiceCounts)
+		{
+			print("platform", voices, runThreadPerVoice(MixerThreadMode.PLATFORM, voices, 
+					blocks));
+			if (virtualSupported)
+				print("virtual", voices, runThreadPerVoice(MixerThreadMode.VIRTUAL, voices, 
+						blocks));
+		}
+		
+		// The default mixer is set up once, before any sounds are played
+		WavMixer.setDefaultThreadMode(mixerMode);
+		WavMixer.setDefaultOutput(new NullAudioOutput(true, false));
+		WavMixer mixer = WavMixer.getDefaultMixer();
+		mixer.setMaxVoices(0);
+		WavSound sound = new WavSound("testSound.wav", "benchmark", 0, 0);
+		sound.setStorageMode(WavStorageMode.RESIDENT);
+		sound.preload();
+		
+		System.out.println();
+		System.out.println("mixer mode\tvoices\tstart ms\ttotal ms\tp50 start ms\t" + 
+				"p99 start ms\tunderruns\tpeak threads");
+		for (int voices : voiceCounts)
+		{
+			runMixer(mixerMode, mixer, sound, voices, seconds);
+		}
+		
+		System.exit(0);
+	}
+	
+	
+	// OTHER METHODS	---------------------
+	
+	private static Result runThreadPerVoice(MixerThreadMode mode, int voices, 
+			final int blocks)
+	{
+		ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+		threads.resetPeakThreadCount();
+		
+		final CountDownLatch done = new CountDownLatch(voices);
+		final AtomicLong totalLateness = new AtomicLong();
+		final AtomicLong maxLateness = new AtomicLong();
+		
+		long startTime = System.nanoTime();
+		for (int i = 0; i < voices; i++)
+		{
+			Thread thread = mode.newThread(new Runnable()
+			{
+				@Override
+				public void run()
+				{
+					short[] samples = createSamples();
+					float[] mix = new float[BLOCK_FRAMES * 2];
+					long deadline = System.nanoTime();
+					for (int block = 0; block < blocks; block++)
+					{
+						mixVoice(samples, mix);
+						deadline += BLOCK_NANOS;
+						record(write(deadline), totalLateness, maxLateness);
+					}
+					done.countDown();
+				}
+			}, "Voice " + i);
+			thread.start();
+		}
+		long startNanos = System.nanoTime() - startTime;
+		
+		await(done);
+		return new Result(startNanos, System.nanoTime() - startTime, 
+				totalLateness.get() / ((long) voices * blocks), maxLateness.get(), 
+				threads.getPeakThreadCount());
+	}
+	
+	// Plays the voices on the mixer for the given time and prints the results
+	private static void runMixer(MixerThreadMode mode, WavMixer mixer, WavSound sound, 
+			int voices, double seconds) throws InterruptedException
+	{
+		ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+		threads.resetPeakThreadCount();
+		SoundMetrics.reset();
+		long underrunsBefore = mixer.getUnderrunCount();
+		
+		long startTime = System.nanoTime();
+		for (int i = 0; i < voices; i++)
+		{
+			sound.loop(0, 0, null);
+		}
+		long startNanos = System.nanoTime() - startTime;
+		
+		Thread.sleep((long) (seconds * 1000));
+		sound.stop();
+		while (sound.getActiveInstanceCount() > 0)
+		{
+			Thread.sleep(1);
+		}
+		long totalNanos = System.nanoTime() - startTime;
+		
+		LatencyHistogram startLatency = SoundMetrics.getStartLatency();
+		System.out.println(mode + "\t\t" + voices + "\t" + millis(startNanos) + "\t\t" + 
+				millis(totalNanos) + "\t\t" + millis(startLatency.getPercentile(0.5)) + 
+				"\t\t" + millis(startLatency.getPercentile(0.99)) + "\t\t" + 
+				(mixer.getUnderrunCount() - underrunsBefore) + "\t\t" + 
+				threads.getPeakThreadCount());
+	}
+	
+	private static short[] createSamples()
+	{
+		short[] samples = new short[BLOCK_FRAMES * 2];
+		for (int i = 0; i < samples.length; i++)
+		{
+			samples[i] = (short) (Math.sin(i * 0.05) * 8000);
+		}
+		return samples;
+	}
+	
+	private static void mixVoice(short[] samples, float[] mix)
+	{
+		for (int i = 0; i < mix.length; i++)
+		{
+			mix[i] += samples[i] * 0.5f;
+		}
+	}
+	
+	// Simulates a blocking line write by waiting until the block would have been played. 
+	// Returns how late the write returned.
+	private static long write(long deadline)
+	{
+		long remaining;
+		while ((remaining = deadline - System.nanoTime()) > 0)
+		{
+			LockSupport.parkNanos(remaining);
+		}
+		return -remaining;
+	}
+	
+	private static void record(long lateness, AtomicLong total, AtomicLong max)
+	{
+		total.addAndGet(lateness);
+		max.accumulateAndGet(lateness, MAX);
+	}
+	
+	private static void await(CountDownLatch latch)
+	{
+		try
+		{
+			latch.await();
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+		}
+	}
+	
+	private static void print(String mode, int voices, Result result)
+	{
+		System.out.println(mode + "\t" + voices + "\t" + millis(result.startNanos) + "\t\t" + 
+				millis(result.totalNanos) + "\t\t" + millis(result.averageLateness) + "\t\t" + 
+				millis(result.maxLateness) + "\t\t" + result.peakThreads);
+	}
+	
+	private static String millis(long nanos)
+	{
+		return String.format("%.2f", nanos / 1000000.0);
+	}
+	
+	
+	// SUBCLASSES	------------------------
+	
+	private static class Result
+	{
+		// ATTRIBUTES	--------------------
+		
+		private final long startNanos, totalNanos, averageLateness, maxLateness;
+		private final int peakThreads;
+		
+		
+		// CONSTRUCTOR	--------------------
+		
+		public Result(long startNanos, long totalNanos, long averageLateness, 
+				long maxLateness, int peakThreads)
+		{
+			this.startNanos = startNanos;
+			this.totalNanos = totalNanos;
+			this.averageLateness = averageLateness;
+			this.maxLateness = maxLateness;
+			this.peakThreads = peakThreads;
+		}
+	}
+}
@@ -0,0 +1,272 @@
+package flux_wav;
+
+import javax.sound.sampled.AudioFormat;
+
+/**
+ * AdpcmSampleData holds the samples of a sound in memory compressed with IMA-ADPCM. Each 
+ * sample takes 4 bits instead of 16. The samples are split into blocks that each start 
+ * with an uncompressed header, so the readers can decode and seek one block at a time.
+ * 
+ * @author Mikko Hilpinen
+ * @since 17.10.2026
+ * @see WavCompression
+ */
+class AdpcmSampleData implements WavSampleData
+{
+	// ATTRIBUTES	-----------------------------
+	
+	/**
+	 * How many frames there are in a single block
+	 */
+	private static final int BLOCK_FRAMES = 1024;
+	
+	private static final int[] INDEX_TABLE = {-1, -1, -1, -1, 2, 4, 6, 8, 
+			-1, -1, -1, -1, 2, 4, 6, 8};
+	private static final int[] STEP_TABLE = {7, 8, 9, 10, 11, 12, 13, 14, 16, 17, 
+			19, 21, 23, 25, 28, 31, 34, 37, 41, 45, 50, 55, 60, 66, 73, 80, 88, 97, 107, 
+			118, 130, 143, 157, 173, 190, 209, 230, 253, 279, 307, 337, 371, 408, 449, 494, 
+			544, 598, 658, 724, 796, 876, 963, 1060, 1166, 1282, 1411, 1552, 1707, 1878, 
+			2066, 2272, 2499, 2749, 3024, 3327, 3660, 4026, 4428, 4871, 5358, 5894, 6484, 
+			7132, 7845, 8630, 9493, 10442, 11487, 12635, 13899, 15289, 16818, 18500, 20350, 
+			22385, 24623, 27086, 29794, 32767};
+	
+	private final AudioFormat format;
+	private final int channels;
+	private final long frames;
+	private final short[] predictors;
+	private final byte[] indices;
+	private final byte[] nibbles;
+	
+	
+	// CONSTRUCTOR	-----------------------------
+	
+	private AdpcmSampleData(AudioFormat format, long frames, short[] predictors, 
+			byte[] indices, byte[] nibbles)
+	{
+		this.format = format;
+		this.channels = format.getChannels();
+		this.frames = frames;
+		this.predictors = predictors;
+		this.indices = indices;
+		this.nibbles = nibbles;
+	}
+	
+	
+	// IMPLEMENTED METHODS	---------------------
+	
+	@Override
+	public AudioFormat getFormat()
+	{
+		return this.format;
+	}
+	
+	@Override
+	public WavSampleReader openReader()
+	{
+		return new Reader();
+	}
+	
+	@Override
+	public long getByteSize()
+	{
+		return this.nibbles.length + this.indices.length + this.predictors.length * 2L;
+	}
+	
+	
+	// OTHER METHODS	-------------------------
+	
+	/**
+	 * Compresses decoded samples
+	 * @param source The samples that are compressed
+	 * @return The compressed samples
+	 */
+	public static AdpcmSampleData encode(ResidentSampleData source)
+	{
+		short[] samples = source.getSamples();
+		int channels = source.getFormat().getChannels();
+		int frames = samples.length / channels;
+		int blocks = (frames + BLOCK_FRAMES - 1) / BLOCK_FRAMES;
+		
+		short[] predictors = new short[blocks * channels];
+		byte[] indices = new byte[blocks * channels];
+		byte[] nibbles = new byte[blocks * BLOCK_FRAMES * channels / 2];
+		
+		// The step index carries over from block to block
+		int[] state = new int[2];
+		int[] stepIndices = new int[channels];
+		for (int block = 0; block < blocks; block++)
+		{
+			for (int c = 0; c < channels; c++)
+			{
+				// Each block starts from the exact sample value
+				int first = block * BLOCK_FRAMES;
+				predictors[block * channels + c] = samples[first * channels + c];
+				indices[block * channels + c] = (byte) stepIndices[c];
+				
+				state[0] = samples[first * channels + c];
+				state[1] = stepIndices[c];
+				for (int i = 0; i < BLOCK_FRAMES; i++)
+				{
+					int frame = first + i;
+					int sample = frame < frames ? samples[frame * channels + c] : 0;
+					int nibble = encodeSample(sample, state);
+					
+					int position = frame * channels + c;
+					nibbles[position >> 1] |= (position & 1) == 0 ? nibble : nibble << 4;
+				}
+				stepIndices[c] = state[1];
+			}
+		}
+		
+		return new AdpcmSampleData(source.getFormat(), frames, predictors, indices, nibbles);
+	}
+	
+	// Encodes a single sample, updating the state (predictor, step index) like the 
+	// decoder would
+	private static int encodeSample(int sample, int[] state)
+	{
+		int step = STEP_TABLE[state[1]];
+		int difference = sample - state[0];
+		int nibble = 0;
+		if (difference < 0)
+		{
+			nibble = 8;
+			difference = -difference;
+		}
+		
+		if (difference >= step)
+		{
+			nibble |= 4;
+			difference -= step;
+		}
+		if (difference >= step >> 1)
+		{
+			nibble |= 2;
+			difference -= step >> 1;
+		}
+		if (difference >= step >> 2)
+			nibble |= 1;
+		
+		decodeNibble(nibble, state);
+		return nibble;
+	}
+	
+	// Decodes a single nibble, updating the state (predictor, step index)
+	private static void decodeNibble(int nibble, int[] state)
+	{
+		int step = STEP_TABLE[state[1]];
+		int difference = step >> 3;
+		if ((nibble & 4) != 0)
+			difference += step;
+		if ((nibble & 2) != 0)
+			difference += step >> 1;
+		if ((nibble & 1) != 0)
+			difference += step >> 2;
+		
+		int predictor = (nibble & 8) != 0 ? state[0] - difference : state[0] + difference;
+		state[0] = Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, predictor));
+		state[1] = Math.max(0, Math.min(STEP_TABLE.length - 1, state[1] + INDEX_TABLE[nibble]));
+	}
+	
+	
+	// SUBCLASSES	-----------------------------
+	
+	private class Reader implements WavSampleReader
+	{
+		// ATTRIBUTES	-------------------------
+		
+		private final int[] state;
+		private short[] block;
+		private int decodedBlock;
+		private long position;
+		
+		
+		// CONSTRUCTOR	-------------------------
+		
+		public Reader()
+		{
+			this.state = new int[2];
+			this.block = null;
+			this.decodedBlock = -1;
+			this.position = 0;
+		}
+		
+		
+		// IMPLEMENTED METHODS	-----------------
+		
+		@Override
+		public int read(short[] buffer, int offset, int frames)
+		{
+			int channels = AdpcmSampleData.this.channels;
+			long remaining = AdpcmSampleData.this.frames - this.position;
+			if (remaining <= 0)
+				return -1;
+			
+			int count = (int) Math.min(frames, remaining);
+			int copied = 0;
+			while (copied < count)
+			{
+				int blockIndex = (int) (this.position / BLOCK_FRAMES);
+				if (blockIndex != this.decodedBlock)
+					decodeBlock(blockIndex);
+				
+				int inBlock = (int) (this.position % BLOCK_FRAMES);
+				int n = Math.min(count - copied, BLOCK_FRAMES - inBlock);
+				System.arraycopy(this.block, inBlock * channels, buffer, 
+						(offset + copied) * channels, n * channels);
+				copied += n;
+				this.position += n;
+			}
+			
+			return count;
+		}
+		
+		@Override
+		public void seek(long frame)
+		{
+			this.position = Math.max(0, Math.min(AdpcmSampleData.this.frames, frame));
+		}
+		
+		@Override
+		public void prepareSeek(long frame)
+		{
+			// The blocks are decoded where they are read
+		}
+		
+		@Override
+		public void close()
+		{
+			BufferPool.release(this.block);
+			this.block = null;
+		}
+		
+		
+		// OTHER METHODS	---------------------
+		
+		private void decodeBlock(int blockIndex)
+		{
+			int channels = AdpcmSampleData.this.channels;
+			if (this.block == null)
+				this.block = BufferPool.getShorts(BLOCK_FRAMES * channels);
+			
+			for (int c = 0; c < channels; c++)
+			{
+				this.state[0] = AdpcmSampleData.this.predictors[blockIndex * channels + c];
+				this.state[1] = AdpcmSampleData.this.indices[blockIndex * channels + c];
+				
+				int first = blockIndex * BLOCK_FRAMES;
+				for (int i = 0; i < BLOCK_FRAMES; i++)
+				{
+					int position = (first + i) * channels + c;
+					int packed = AdpcmSampleData.this.nibbles[position >> 1];
+					int nibble = ((position & 1) == 0 ? packed : packed >> 4) & 0x0f;
+					
+					decodeNibble(nibble, this.state);
+					this.block[i * channels + c] = (short) this.state[0];
+				}
+			}
+			
+			this.decodedBlock = blockIndex;
+		}
+	}
+}
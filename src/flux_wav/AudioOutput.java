@@ -0,0 +1,60 @@
+package flux_wav;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.LineUnavailableException;
+
+/**
+ * AudioOutput is the destination the mixer writes its output to. Usually the output is 
+ * an audio line but it may also be, for example, a null output that only records or 
+ * discards the audio.
+ * 
+ * @author Mikko Hilpinen
+ * @since 17.10.2026
+ * @see LineAudioOutput
+ * @see NullAudioOutput
+ */
+public interface AudioOutput
+{
+	/**
+	 * Opens the output so that it can be written to
+	 * @param format The format of the audio that will be written
+	 * @param bufferSize How many bytes the output should buffer
+	 * @throws LineUnavailableException If the output couldn't be opened
+	 */
+	public void open(AudioFormat format, int bufferSize) throws LineUnavailableException;
+	
+	/**
+	 * Writes audio to the output. Blocks until all of the data has fit into the output's 
+	 * buffer.
+	 * @param data The buffer that contains the audio
+	 * @param offset The index of the first byte that is written
+	 * @param length How many bytes are written
+	 */
+	public void write(byte[] data, int offset, int length);
+	
+	/**
+	 * @return How many bytes can currently be written without blocking
+	 */
+	public int available();
+	
+	/**
+	 * @return How many bytes the output buffers
+	 */
+	public int getBufferSize();
+	
+	/**
+	 * @return How many frames the output has played since it was opened
+	 */
+	public long getFramePosition();
+	
+	/**
+	 * @return Does the output consume the audio at the speed it is played. Outputs that 
+	 * don't can't run out of audio.
+	 */
+	public boolean isRealTime();
+	
+	/**
+	 * Plays the buffered audio and closes the output
+	 */
+	public void close();
+}
@@ -0,0 +1,143 @@
+package flux_wav;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * BufferPool keeps the sample buffers of finished voices so that new voices can reuse them 
+ * instead of allocating new ones on every play. Buffers are pooled by their length.
+ * 
+ * @author Mikko Hilpinen
+ * @since 17.10.2026
+ */
+final class BufferPool
+{
+	// ATTRIBUTES	-----------------------------
+	
+	/**
+	 * How many buffers of each length and type are kept at most
+	 */
+	private static final int MAX_POOLED = 64;
+	
+	private static final Pool<byte[]> bytes = new Pool<>();
+	private static final Pool<short[]> shorts = new Pool<>();
+	private static final Pool<float[]> floats = new Pool<>();
+	
+	
+	// CONSTRUCTOR	-----------------------------
+	
+	private BufferPool()
+	{
+		// The interface is static
+	}
+	
+	
+	// OTHER METHODS	-------------------------
+	
+	/**
+	 * @param length The length of the buffer
+	 * @return A byte buffer with the given length. The contents are undefined.
+	 */
+	public static byte[] getBytes(int length)
+	{
+		byte[] buffer = bytes.take(length);
+		return buffer == null ? new byte[length] : buffer;
+	}
+	
+	/**
+	 * @param length The length of the buffer
+	 * @return A short buffer with the given length. The contents are undefined.
+	 */
+	public static short[] getShorts(int length)
+	{
+		short[] buffer = shorts.take(length);
+		return buffer == null ? new short[length] : buffer;
+	}
+	
+	/**
+	 * @param length The length of the buffer
+	 * @return A float buffer with the given length. The contents are undefined.
+	 */
+	public static float[] getFloats(int length)
+	{
+		float[] buffer = floats.take(length);
+		return buffer == null ? new float[length] : buffer;
+	}
+	
+	/**
+	 * Returns a buffer to the pool. The buffer must not be used afterwards.
+	 * @param buffer The buffer that is no longer used (may be null)
+	 */
+	public static void release(byte[] buffer)
+	{
+		if (buffer != null)
+			bytes.give(buffer.length, buffer);
+	}
+	
+	/**
+	 * Returns a buffer to the pool. The buffer must not be used afterwards.
+	 * @param buffer The buffer that is no longer used (may be null)
+	 */
+	public static void release(short[] buffer)
+	{
+		if (buffer != null)
+			shorts.give(buffer.length, buffer);
+	}
+	
+	/**
+	 * Returns a buffer to the pool. The buffer must not be used afterwards.
+	 * @param buffer The buffer that is no longer used (may be null)
+	 */
+	public static void release(float[] buffer)
+	{
+		if (buffer != null)
+			floats.give(buffer.length, buffer);
+	}
+	
+	
+	// SUBCLASSES	-----------------------------
+	
+	private static class Pool<T>
+	{
+		// ATTRIBUTES	-------------------------
+		
+		private final Map<Integer, Queue<T>> buffers = new ConcurrentHashMap<>();
+		private final Map<Integer, AtomicInteger> sizes = new ConcurrentHashMap<>();
+		
+		
+		// OTHER METHODS	---------------------
+		
+		public T take(int length)
+		{
+			Queue<T> queue = this.buffers.get(length);
+			if (queue == null)
+				return null;
+			
+			T buffer = queue.poll();
+			if (buffer != null)
+				this.sizes.get(length).decrementAndGet();
+			return buffer;
+		}
+		
+		public void give(int length, T buffer)
+		{
+			Queue<T> queue = this.buffers.get(length);
+			if (queue == null)
+			{
+				// The size counter must exist before the queue does
+				this.sizes.putIfAbsent(length, new AtomicInteger());
+				this.buffers.putIfAbsent(length, new ConcurrentLinkedQueue<T>());
+				queue = this.buffers.get(length);
+			}
+			
+			// Extra buffers are left for the garbage collector
+			if (this.sizes.get(length).incrementAndGet() > MAX_POOLED)
+				this.sizes.get(length).decrementAndGet();
+			else
+				queue.add(buffer);
+		}
+	}
+}
@@ -0,0 +1,80 @@
+package flux_wav;
+
+/**
+ * Latency profiles define how large blocks the mixer mixes at a time and how large a buffer 
+ * the output line uses. Smaller buffers start sounds faster but are more prone to 
+ * underruns on slow machines.
+ * 
+ * @author Mikko Hilpinen
+ * @since 17.10.2026
+ */
+public enum LatencyProfile
+{
+	/**
+	 * Small buffers for ui clicks, weapon sounds and other sounds that need to start right 
+	 * away (about 6 ms blocks at 44,1 kHz)
+	 */
+	LOW_LATENCY(256, 1024),
+	/**
+	 * Medium sized buffers that suit most games (about 23 ms blocks at 44,1 kHz)
+	 */
+	BALANCED(1024, 4096),
+	/**
+	 * Large buffers for background music and ambience where start latency doesn't matter 
+	 * (about 93 ms blocks at 44,1 kHz)
+	 */
+	STREAMING(4096, 16384);
+	
+	
+	// ATTRIBUTES	-------------------------------
+	
+	private final int blockFrames, lineBufferFrames;
+	
+	
+	// CONSTRUCTOR	-------------------------------
+	
+	private LatencyProfile(int blockFrames, int lineBufferFrames)
+	{
+		this.blockFrames = blockFrames;
+		this.lineBufferFrames = lineBufferFrames;
+	}
+	
+	
+	// GETTERS & SETTERS	-----------------------
+	
+	/**
+	 * @return How many frames are mixed and read during a single mixer cycle
+	 */
+	public int getBlockFrames()
+	{
+		return this.blockFrames;
+	}
+	
+	/**
+	 * @return How many frames the output line buffers
+	 */
+	public int getLineBufferFrames()
+	{
+		return this.lineBufferFrames;
+	}
+	
+	
+	// OTHER METHODS	---------------------------
+	
+	/**
+	 * Finds a latency profile the given string represents
+	 * @param s A string that represents a latency profile
+	 * @return The latency profile represented by the string or null if no such profile can 
+	 * be found
+	 */
+	public static LatencyProfile parseFromString(String s)
+	{
+		for (LatencyProfile profile : values())
+		{
+			if (profile.toString().equalsIgnoreCase(s))
+				return profile;
+		}
+		
+		return null;
+	}
+}
@@ -0,0 +1,95 @@
+package flux_wav;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.DataLine;
+import javax.sound.sampled.LineUnavailableException;
+import javax.sound.sampled.SourceDataLine;
+
+/**
+ * LineAudioOutput plays the audio through the system's default audio line
+ * 
+ * @author Mikko Hilpinen
+ * @since 17.10.2026
+ */
+public class LineAudioOutput implements AudioOutput
+{
+	// ATTRIBUTES	-----------------------------
+	
+	private SourceDataLine line;
+	
+	
+	// CONSTRUCTOR	-----------------------------
+	
+	/**
+	 * Creates a new output. The line is acquired when the output is opened.
+	 */
+	public LineAudioOutput()
+	{
+		this.line = null;
+	}
+	
+	
+	// IMPLEMENTED METHODS	---------------------
+	
+	@Override
+	public void open(AudioFormat format, int bufferSize) throws LineUnavailableException
+	{
+		try
+		{
+			DataLine.Info info = new DataLine.Info(SourceDataLine.class, format);
+			this.line = (SourceDataLine) AudioSystem.getLine(info);
+		}
+		catch (IllegalArgumentException e)
+		{
+			// Thrown when there is no line that supports the format
+			LineUnavailableException exception = new LineUnavailableException(e.getMessage());
+			exception.initCause(e);
+			throw exception;
+		}
+		
+		this.line.open(format, bufferSize);
+		this.line.start();
+	}
+	
+	@Override
+	public void write(byte[] data, int offset, int length)
+	{
+		this.line.write(data, offset, length);
+	}
+	
+	@Override
+	public int available()
+	{
+		return this.line.available();
+	}
+	
+	@Override
+	public int getBufferSize()
+	{
+		return this.line.getBufferSize();
+	}
+	
+	@Override
+	public long getFramePosition()
+	{
+		return this.line.getLongFramePosition();
+	}
+	
+	@Override
+	public boolean isRealTime()
+	{
+		return true;
+	}
+	
+	@Override
+	public void close()
+	{
+		if (this.line == null)
+			return;
+		
+		this.line.drain();
+		this.line.close();
+		this.line = null;
+	}
+}
@@ -0,0 +1,206 @@
+package flux_wav;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.ShortBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.StandardOpenOption;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.UnsupportedAudioFileException;
+
+/**
+ * MappedSampleData maps the data chunk of a wav file into memory so that the samples can be 
+ * read straight from the file without copying them into the heap first. Only files that 
+ * already contain 16-bit pcm in the mixer's sample rate can be mapped.
+ * 
+ * @author Mikko Hilpinen
+ * @since 17.10.2026
+ */
+class MappedSampleData implements WavSampleData
+{
+	// ATTRIBUTES	-----------------------------
+	
+	private final AudioFormat format;
+	private final ShortBuffer samples;
+	private final int channels;
+	
+	
+	// CONSTRUCTOR	-----------------------------
+	
+	private MappedSampleData(AudioFormat format, MappedByteBuffer data)
+	{
+		this.format = format;
+		this.samples = data.order(ByteOrder.LITTLE_ENDIAN).asShortBuffer();
+		this.channels = format.getChannels();
+	}
+	
+	
+	// IMPLEMENTED METHODS	---------------------
+	
+	@Override
+	public AudioFormat getFormat()
+	{
+		return this.format;
+	}
+	
+	@Override
+	public WavSampleReader openReader()
+	{
+		return new Reader(this.samples.duplicate());
+	}
+	
+	@Override
+	public long getByteSize()
+	{
+		// The mapping is outside the heap
+		return 0;
+	}
+	
+	
+	// OTHER METHODS	-------------------------
+	
+	/**
+	 * Maps the samples of the given wav file
+	 * @param file The wav file that is mapped
+	 * @param sampleRate The sample rate the samples must be in
+	 * @return The mapped sample data
+	 * @throws IOException If the file couldn't be read
+	 * @throws UnsupportedAudioFileException If the file isn't a wav file containing 16-bit 
+	 * pcm in the given sample rate
+	 */
+	public static MappedSampleData map(File file, float sampleRate) throws IOException, 
+			UnsupportedAudioFileException
+	{
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ))
+		{
+			// Reads the riff header
+			ByteBuffer header = ByteBuffer.allocate(12).order(ByteOrder.LITTLE_ENDIAN);
+			readFully(channel, header, 0);
+			if (header.getInt(0) != 0x46464952 || header.getInt(8) != 0x45564157)
+				throw new UnsupportedAudioFileException(file + " is not a wav file");
+			
+			// Goes through the chunks until the data chunk is found
+			ByteBuffer chunkHeader = ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN);
+			AudioFormat format = null;
+			long position = 12;
+			while (position + 8 <= channel.size())
+			{
+				chunkHeader.clear();
+				readFully(channel, chunkHeader, position);
+				int id = chunkHeader.getInt(0);
+				long size = chunkHeader.getInt(4) & 0xffffffffL;
+				position += 8;
+				
+				// "fmt "
+				if (id == 0x20746d66)
+					format = readFormat(channel, position, file, sampleRate);
+				// "data"
+				else if (id == 0x61746164)
+				{
+					if (format == null)
+						throw new UnsupportedAudioFileException(file + 
+								" has no format before its data");
+					
+					long length = Math.min(size, channel.size() - position);
+					length -= length % format.getFrameSize();
+					return new MappedSampleData(format, 
+							channel.map(MapMode.READ_ONLY, position, length));
+				}
+				
+				// Chunks are aligned to even bytes
+				position += size + (size % 2);
+			}
+			
+			throw new UnsupportedAudioFileException(file + " doesn't contain any data");
+		}
+	}
+	
+	private static AudioFormat readFormat(FileChannel channel, long position, File file, 
+			float sampleRate) throws IOException, UnsupportedAudioFileException
+	{
+		ByteBuffer fmt = ByteBuffer.allocate(16).order(ByteOrder.LITTLE_ENDIAN);
+		readFully(channel, fmt, position);
+		
+		int formatTag = fmt.getShort(0) & 0xffff;
+		int channels = fmt.getShort(2);
+		int rate = fmt.getInt(4);
+		int bits = fmt.getShort(14);
+		
+		// Only plain pcm that doesn't need converting can be mapped
+		if (formatTag != 1 || bits != 16 || channels < 1 || channels > 2 || 
+				rate != sampleRate)
+			throw new UnsupportedAudioFileException("Can't map " + file + 
+					" since it isn't 16-bit pcm at " + sampleRate + " Hz");
+		
+		return new AudioFormat(rate, 16, channels, true, false);
+	}
+	
+	private static void readFully(FileChannel channel, ByteBuffer buffer, long position) 
+			throws IOException
+	{
+		while (buffer.hasRemaining())
+		{
+			if (channel.read(buffer, position + buffer.position()) < 0)
+				throw new IOException("Unexpected end of file");
+		}
+	}
+	
+	
+	// SUBCLASSES	-----------------------------
+	
+	private class Reader implements WavSampleReader
+	{
+		// ATTRIBUTES	-------------------------
+		
+		private final ShortBuffer samples;
+		
+		
+		// CONSTRUCTOR	-------------------------
+		
+		public Reader(ShortBuffer samples)
+		{
+			this.samples = samples;
+		}
+		
+		
+		// IMPLEMENTED METHODS	-----------------
+		
+		@Override
+		public int read(short[] buffer, int offset, int frames)
+		{
+			int channels = MappedSampleData.this.channels;
+			int remaining = this.samples.remaining() / channels;
+			if (remaining <= 0)
+				return -1;
+			
+			int count = Math.min(frames, remaining);
+			this.samples.get(buffer, offset * channels, count * channels);
+			
+			return count;
+		}
+		
+		@Override
+		public void seek(long frame)
+		{
+			this.samples.position((int) Math.min(this.samples.limit(), 
+					frame * MappedSampleData.this.channels));
+		}
+		
+		@Override
+		public void prepareSeek(long frame)
+		{
+			// The mapped samples can be moved to right away
+		}
+		
+		@Override
+		public void close()
+		{
+			// The mapping is shared and released once the sample data is no longer used
+		}
+	}
+}
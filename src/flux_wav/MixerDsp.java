@@ -0,0 +1,168 @@
+package flux_wav;
+
+/**
+ * MixerDsp contains the signal processing used when the voices are mixed. Gain and pan are 
+ * applied in software so that they work the same way regardless of the controls the output 
+ * line supports. The loops are kept as simple counted loops over flat arrays so that the 
+ * JIT can vectorize them.
+ * 
+ * @author Mikko Hilpinen
+ * @since 17.10.2026
+ */
+final class MixerDsp
+{
+	// ATTRIBUTES	-----------------------------
+	
+	private static final double QUARTER_PI = Math.PI / 4;
+	private static final double SQRT_2 = Math.sqrt(2);
+	
+	
+	// CONSTRUCTOR	-----------------------------
+	
+	private MixerDsp()
+	{
+		// The interface is static
+	}
+	
+	
+	// OTHER METHODS	-------------------------
+	
+	/**
+	 * Converts a desibel adjustment into a linear gain
+	 * @param desibels The volume adjustment in desibels
+	 * @return The matching linear gain
+	 */
+	public static float desibelsToGain(double desibels)
+	{
+		return (float) Math.pow(10, desibels / 20.0);
+	}
+	
+	/**
+	 * Calculates the gain of the left channel using a constant-power pan law. The power of 
+	 * a mono source stays the same at every pan position.
+	 * @param pan The pan [-1 (left only), 1 (right only)]
+	 * @param stereo Is the panned source a stereo source. Stereo sources are balanced so 
+	 * that both channels are kept at full gain in the center.
+	 * @return The gain of the left channel
+	 */
+	public static float leftPanGain(double pan, boolean stereo)
+	{
+		double gain = Math.cos((pan + 1) * QUARTER_PI);
+		if (stereo)
+			gain = Math.min(1, gain * SQRT_2);
+		return (float) gain;
+	}
+	
+	/**
+	 * Calculates the gain of the right channel using a constant-power pan law
+	 * @param pan The pan [-1 (left only), 1 (right only)]
+	 * @param stereo Is the panned source a stereo source
+	 * @return The gain of the right channel
+	 * @see #leftPanGain(double, boolean)
+	 */
+	public static float rightPanGain(double pan, boolean stereo)
+	{
+		double gain = Math.sin((pan + 1) * QUARTER_PI);
+		if (stereo)
+			gain = Math.min(1, gain * SQRT_2);
+		return (float) gain;
+	}
+	
+	/**
+	 * Fills the gain buffer with interleaved left and right gains
+	 * @param gains The interleaved stereo gain buffer
+	 * @param frames How many frames are filled
+	 * @param left The gain of the left channel
+	 * @param right The gain of the right channel
+	 */
+	public static void fillGains(float[] gains, int frames, float left, float right)
+	{
+		for (int i = 0; i < frames; i++)
+		{
+			gains[2 * i] = left;
+			gains[2 * i + 1] = right;
+		}
+	}
+	
+	/**
+	 * Fills the gain buffer with interleaved left and right gains that are scaled by a 
+	 * linear ramp. The ramp level changes by the step on each frame until it reaches the 
+	 * target level, after which it stays at the target.
+	 * @param gains The interleaved stereo gain buffer
+	 * @param frames How many frames are filled
+	 * @param left The gain of the left channel at full level
+	 * @param right The gain of the right channel at full level
+	 * @param level The ramp level at the first frame
+	 * @param step How much the level changes on each frame
+	 * @param target The level the ramp stops at
+	 * @return The ramp level after the filled frames
+	 */
+	public static float fillGainRamp(float[] gains, int frames, float left, float right, 
+			float level, float step, float target)
+	{
+		// Counts how many frames are left before the target is reached
+		int rampFrames = frames;
+		if (step != 0)
+			rampFrames = (int) Math.min(frames, Math.max(0, Math.ceil((target - level) / step)));
+		
+		for (int i = 0; i < rampFrames; i++)
+		{
+			float gain = level + step * i;
+			gains[2 * i] = left * gain;
+			gains[2 * i + 1] = right * gain;
+		}
+		for (int i = rampFrames; i < frames; i++)
+		{
+			gains[2 * i] = left * target;
+			gains[2 * i + 1] = right * target;
+		}
+		
+		return rampFrames < frames ? target : level + step * frames;
+	}
+	
+	/**
+	 * Copies mono samples to both channels of an interleaved stereo buffer
+	 * @param mono The mono samples
+	 * @param stereo The buffer the stereo samples are written to
+	 * @param frames How many frames are copied
+	 */
+	public static void monoToStereo(short[] mono, short[] stereo, int frames)
+	{
+		for (int i = 0; i < frames; i++)
+		{
+			stereo[2 * i] = mono[i];
+			stereo[2 * i + 1] = mono[i];
+		}
+	}
+	
+	/**
+	 * Multiplies the samples with the gains and adds them to the mix
+	 * @param samples The interleaved stereo samples
+	 * @param gains The interleaved stereo gains, one for each sample
+	 * @param mix The interleaved stereo mix buffer
+	 * @param length How many samples (not frames) are mixed
+	 */
+	public static void mix(short[] samples, float[] gains, float[] mix, int length)
+	{
+		for (int i = 0; i < length; i++)
+		{
+			mix[i] += samples[i] * gains[i];
+		}
+	}
+	
+	/**
+	 * Clips the mixed samples and writes them as signed 16-bit little-endian pcm
+	 * @param mix The mixed samples
+	 * @param output The buffer the pcm data is written to
+	 * @param length How many samples are written
+	 */
+	public static void toPcm(float[] mix, byte[] output, int length)
+	{
+		for (int i = 0; i < length; i++)
+		{
+			int value = (int) Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, mix[i]));
+			output[2 * i] = (byte) value;
+			output[2 * i + 1] = (byte) (value >> 8);
+		}
+	}
+}
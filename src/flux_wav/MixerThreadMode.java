@@ -0,0 +1,106 @@
+package flux_wav;
+
+import java.lang.reflect.Method;
+
+/**
+ * Mixer thread modes define what kind of a thread runs the mixer. Virtual threads are only 
+ * available on Java 21 and newer. On older versions a platform thread is used instead.
+ * 
+ * @author Mikko Hilpinen
+ * @since 17.10.2026
+ */
+public enum MixerThreadMode
+{
+	/**
+	 * The mixer runs on a dedicated platform daemon thread
+	 */
+	PLATFORM,
+	/**
+	 * The mixer runs on a virtual thread so that the blocking writes to the output line 
+	 * don't occupy a platform thread
+	 */
+	VIRTUAL;
+	
+	
+	// OTHER METHODS	---------------------------
+	
+	/**
+	 * Creates a new, unstarted thread of this kind
+	 * @param task The task the thread runs
+	 * @param name The name of the thread
+	 * @return A new thread. A platform thread if this kind of thread isn't supported.
+	 */
+	public Thread newThread(Runnable task, String name)
+	{
+		if (this == VIRTUAL)
+		{
+			Thread thread = newVirtualThread(task, name);
+			if (thread != null)
+				return thread;
+			System.err.println("Virtual threads are not supported, using a platform thread");
+		}
+		
+		Thread thread = new Thread(task, name);
+		thread.setDaemon(true);
+		return thread;
+	}
+	
+	/**
+	 * @return Can threads of this kind be created in the current environment
+	 */
+	public boolean isSupported()
+	{
+		return this == PLATFORM || virtualThreadBuilder() != null;
+	}
+	
+	/**
+	 * Finds a thread mode the given string represents
+	 * @param s A string that represents a thread mode
+	 * @return The thread mode represented by the string or null if no such mode can be 
+	 * found
+	 */
+	public static MixerThreadMode parseFromString(String s)
+	{
+		for (MixerThreadMode mode : values())
+		{
+			if (mode.toString().equalsIgnoreCase(s))
+				return mode;
+		}
+		
+		return null;
+	}
+	
+	// The virtual threads are created through reflection so that older Java versions can 
+	// still use the library
+	private static Thread newVirtualThread(Runnable task, String name)
+	{
+		Object builder = virtualThreadBuilder();
+		if (builder == null)
+			return null;
+		
+		try
+		{
+			Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+			builder = builderClass.getMethod("name", String.class).invoke(builder, name);
+			return (Thread) builderClass.getMethod("unstarted", Runnable.class).invoke(
+					builder, task);
+		}
+		catch (ReflectiveOperationException e)
+		{
+			return null;
+		}
+	}
+	
+	private static Object virtualThreadBuilder()
+	{
+		try
+		{
+			Method ofVirtual = Thread.class.getMethod("ofVirtual");
+			return ofVirtual.invoke(null);
+		}
+		catch (ReflectiveOperationException e)
+		{
+			return null;
+		}
+	}
+}
@@ -0,0 +1,220 @@
+package flux_wav;
+
+import java.io.ByteArrayOutputStream;
+import java.util.concurrent.locks.LockSupport;
+
+import javax.sound.sampled.AudioFormat;
+
+/**
+ * NullAudioOutput doesn't need an audio device. It consumes the audio either at the speed 
+ * a real line would play it or as fast as it is written, and optionally records what 
+ * would have been played. This makes it possible to run the mixer in tests and 
+ * benchmarks on machines that have no sound card.
+ * 
+ * @author Mikko Hilpinen
+ * @since 17.10.2026
+ */
+public class NullAudioOutput implements AudioOutput
+{
+	// ATTRIBUTES	-----------------------------
+	
+	private final boolean realTime;
+	private final ByteArrayOutputStream recording;
+	private int frameSize, bufferSize;
+	private float frameRate;
+	private long writtenFrames, clockStartFrame, clockStartNanos, frameLimit;
+	
+	
+	// CONSTRUCTOR	-----------------------------
+	
+	/**
+	 * Creates a new null output
+	 * @param realTime Should the output consume the audio at the speed it would be played. 
+	 * If false, the writes never block, as if the buffer was always emptied right away.
+	 * @param records Should the written audio be recorded
+	 */
+	public NullAudioOutput(boolean realTime, boolean records)
+	{
+		this.realTime = realTime;
+		this.recording = records ? new ByteArrayOutputStream() : null;
+		this.frameSize = 1;
+		this.bufferSize = 0;
+		this.frameRate = 1;
+		this.frameLimit = -1;
+	}
+	
+	
+	// IMPLEMENTED METHODS	---------------------
+	
+	@Override
+	public synchronized void open(AudioFormat format, int bufferSize)
+	{
+		this.frameSize = format.getFrameSize();
+		this.frameRate = format.getFrameRate();
+		this.bufferSize = bufferSize;
+		this.writtenFrames = 0;
+		this.clockStartFrame = 0;
+		this.clockStartNanos = System.nanoTime();
+	}
+	
+	@Override
+	public void write(byte[] data, int offset, int length)
+	{
+		int frames = length / this.frameSize;
+		
+		if (this.realTime)
+		{
+			// Waits until there's room in the simulated buffer
+			int bufferFrames = this.bufferSize / this.frameSize;
+			while (true)
+			{
+				long excess;
+				synchronized (this)
+				{
+					excess = this.writtenFrames + frames - getPlayedFrames(System.nanoTime()) - 
+							Math.max(bufferFrames, frames);
+				}
+				if (excess <= 0)
+					break;
+				LockSupport.parkNanos((long) (excess * 1000000000.0 / this.frameRate));
+			}
+		}
+		
+		synchronized (this)
+		{
+			// Waits until the frame limit allows more audio to be written
+			while (this.frameLimit >= 0 && this.writtenFrames >= this.frameLimit)
+			{
+				try
+				{
+					wait();
+				}
+				catch (InterruptedException e)
+				{
+					Thread.currentThread().interrupt();
+					return;
+				}
+			}
+			
+			// If the buffer had run empty, the playback continues from the new data
+			long now = System.nanoTime();
+			if (getPlayedFrames(now) >= this.writtenFrames)
+			{
+				this.clockStartFrame = this.writtenFrames;
+				this.clockStartNanos = now;
+			}
+			
+			this.writtenFrames += frames;
+			if (this.recording != null)
+				this.recording.write(data, offset, length);
+			notifyAll();
+		}
+	}
+	
+	@Override
+	public synchronized int available()
+	{
+		if (!this.realTime)
+			return 0;
+		
+		long buffered = this.writtenFrames - getPlayedFrames(System.nanoTime());
+		return (int) Math.max(0, this.bufferSize - buffered * this.frameSize);
+	}
+	
+	@Override
+	public int getBufferSize()
+	{
+		return this.bufferSize;
+	}
+	
+	@Override
+	public synchronized long getFramePosition()
+	{
+		return getPlayedFrames(System.nanoTime());
+	}
+	
+	@Override
+	public void close()
+	{
+		// The buffered audio is considered played
+	}
+	
+	
+	@Override
+	public boolean isRealTime()
+	{
+		return this.realTime;
+	}
+	
+	
+	// GETTERS & SETTERS	---------------------
+	
+	/**
+	 * Limits how many frames can be written to the output. Once the limit has been reached, 
+	 * the writes block until the limit is raised, which lets a test pull an exact amount of 
+	 * audio from the mixer regardless of timing. A write that starts below the limit is 
+	 * completed as a whole.
+	 * @param frameLimit How many frames can be written since the output was opened. 
+	 * Negative for no limit (default).
+	 */
+	public synchronized void setFrameLimit(long frameLimit)
+	{
+		this.frameLimit = frameLimit;
+		notifyAll();
+	}
+	
+	/**
+	 * Waits until the given amount of frames has been written to the output
+	 * @param frames How many frames should have been written since the output was opened
+	 * @throws InterruptedException If the thread was interrupted while waiting
+	 */
+	public synchronized void awaitWrittenFrames(long frames) throws InterruptedException
+	{
+		while (this.writtenFrames < frames)
+		{
+			wait();
+		}
+	}
+	
+	/**
+	 * @return How many frames have been written to the output since it was opened
+	 */
+	public synchronized long getWrittenFrames()
+	{
+		return this.writtenFrames;
+	}
+	
+	/**
+	 * @return The audio that has been written to the output. Empty if the output doesn't 
+	 * record.
+	 */
+	public synchronized byte[] getRecording()
+	{
+		if (this.recording == null)
+			return new byte[0];
+		return this.recording.toByteArray();
+	}
+	
+	
+	// OTHER METHODS	-------------------------
+	
+	/**
+	 * Removes the recorded audio
+	 */
+	public synchronized void clearRecording()
+	{
+		if (this.recording != null)
+			this.recording.reset();
+	}
+	
+	private long getPlayedFrames(long now)
+	{
+		// An unthrottled output behaves as if its buffer was always full
+		if (!this.realTime)
+			return Math.max(0, this.writtenFrames - this.bufferSize / this.frameSize);
+		
+		long played = this.clockStartFrame + (long) ((now - this.clockStartNanos) * 
+				(double) this.frameRate / 1000000000.0);
+		return Math.min(this.writtenFrames, played);
+	}
+}
@@ -0,0 +1,186 @@
+package flux_wav;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.UnsupportedAudioFileException;
+
+/**
+ * ResidentSampleData holds the decoded samples of a sound in memory. The samples are 
+ * read-only and shared between all the instances playing them.
+ * 
+ * @author Mikko Hilpinen
+ * @since 17.10.2026
+ * @see WavSampleCache
+ */
+class ResidentSampleData implements WavSampleData
+{
+	// ATTRIBUTES	-----------------------------
+	
+	private final AudioFormat format;
+	private final short[] samples;
+	private final int channels;
+	
+	
+	// CONSTRUCTOR	-----------------------------
+	
+	/**
+	 * Creates new sample data
+	 * @param format The format of the samples
+	 * @param samples The interleaved samples
+	 */
+	public ResidentSampleData(AudioFormat format, short[] samples)
+	{
+		this.format = format;
+		this.samples = samples;
+		this.channels = format.getChannels();
+	}
+	
+	
+	// IMPLEMENTED METHODS	---------------------
+	
+	@Override
+	public AudioFormat getFormat()
+	{
+		return this.format;
+	}
+	
+	@Override
+	public WavSampleReader openReader()
+	{
+		return new Reader();
+	}
+	
+	
+	@Override
+	public long getByteSize()
+	{
+		return this.samples.length * 2L;
+	}
+	
+	
+	// GETTERS & SETTERS	---------------------
+	
+	/**
+	 * @return The interleaved samples. The array must not be modified.
+	 */
+	short[] getSamples()
+	{
+		return this.samples;
+	}
+	
+	
+	// OTHER METHODS	-------------------------
+	
+	/**
+	 * Decodes the whole file into memory. The samples are resampled with 
+	 * {@link SampleConverter}, which is slower but more accurate than the conversion done 
+	 * by the audio system.
+	 * @param file The file that is decoded
+	 * @param sampleRate The sample rate the samples are converted to
+	 * @param channels How many channels the samples are converted to. 0 if the file's 
+	 * channel count (up to stereo) should be kept.
+	 * @return The decoded samples
+	 * @throws IOException If the file couldn't be read
+	 * @throws UnsupportedAudioFileException If the file isn't in a supported format
+	 */
+	public static ResidentSampleData decode(File file, float sampleRate, int channels) throws 
+			IOException, UnsupportedAudioFileException
+	{
+		// The file is read in its own sample rate
+		AudioInputStream stream = StreamedSampleData.openStream(file, AudioSystem.NOT_SPECIFIED);
+		try
+		{
+			// Reads all of the bytes
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			byte[] buffer = new byte[16384];
+			int n = 0;
+			while ((n = stream.read(buffer)) >= 0)
+				bytes.write(buffer, 0, n);
+			
+			// Converts them to samples
+			byte[] data = bytes.toByteArray();
+			short[] samples = new short[data.length / 2];
+			for (int i = 0; i < samples.length; i++)
+			{
+				samples[i] = (short) ((data[2 * i] & 0xff) | (data[2 * i + 1] << 8));
+			}
+			
+			// Converts the samples to the requested format
+			AudioFormat sourceFormat = stream.getFormat();
+			int targetChannels = channels > 0 ? channels : sourceFormat.getChannels();
+			samples = SampleConverter.resample(samples, sourceFormat.getChannels(), 
+					sourceFormat.getSampleRate(), sampleRate);
+			samples = SampleConverter.convertChannels(samples, sourceFormat.getChannels(), 
+					targetChannels);
+			
+			return new ResidentSampleData(new AudioFormat(sampleRate, 16, targetChannels, 
+					true, false), samples);
+		}
+		finally
+		{
+			stream.close();
+		}
+	}
+	
+	
+	// SUBCLASSES	-----------------------------
+	
+	private class Reader implements WavSampleReader
+	{
+		// ATTRIBUTES	-------------------------
+		
+		private int position;
+		
+		
+		// CONSTRUCTOR	-------------------------
+		
+		public Reader()
+		{
+			this.position = 0;
+		}
+		
+		
+		// IMPLEMENTED METHODS	-----------------
+		
+		@Override
+		public int read(short[] buffer, int offset, int frames)
+		{
+			int remaining = (ResidentSampleData.this.samples.length - this.position) / 
+					ResidentSampleData.this.channels;
+			if (remaining <= 0)
+				return -1;
+			
+			int count = Math.min(frames, remaining);
+			System.arraycopy(ResidentSampleData.this.samples, this.position, buffer, 
+					offset * ResidentSampleData.this.channels, 
+					count * ResidentSampleData.this.channels);
+			this.position += count * ResidentSampleData.this.channels;
+			
+			return count;
+		}
+		
+		@Override
+		public void seek(long frame)
+		{
+			this.position = (int) Math.min(ResidentSampleData.this.samples.length, 
+					frame * ResidentSampleData.this.channels);
+		}
+		
+		@Override
+		public void prepareSeek(long frame)
+		{
+			// The samples are already in memory
+		}
+		
+		@Override
+		public void close()
+		{
+			// Resident data doesn't need to be released
+		}
+	}
+}
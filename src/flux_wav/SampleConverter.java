@@ -0,0 +1,172 @@
+package flux_wav;
+
+/**
+ * SampleConverter converts decoded samples into another sample rate or channel count. The 
+ * conversions are meant to be done once when the samples are loaded, so quality is 
+ * preferred over speed.
+ * 
+ * @author Mikko Hilpinen
+ * @since 17.10.2026
+ */
+final class SampleConverter
+{
+	// ATTRIBUTES	-----------------------------
+	
+	/**
+	 * How many zero crossings of the sinc function are used on each side of a sample
+	 */
+	private static final int ZERO_CROSSINGS = 16;
+	/**
+	 * How many kernel values are precalculated between two zero crossings
+	 */
+	private static final int RESOLUTION = 512;
+	
+	private static final float[] kernel = createKernel();
+	
+	
+	// CONSTRUCTOR	-----------------------------
+	
+	private SampleConverter()
+	{
+		// The interface is static
+	}
+	
+	
+	// OTHER METHODS	-------------------------
+	
+	/**
+	 * Converts the samples into another sample rate using band-limited (windowed sinc) 
+	 * interpolation. When the samples are downsampled, the frequencies above the new 
+	 * nyquist frequency are filtered out.
+	 * @param samples The interleaved samples
+	 * @param channels How many channels the samples have
+	 * @param sourceRate The current sample rate of the samples
+	 * @param targetRate The sample rate the samples are converted to
+	 * @return The resampled samples
+	 */
+	public static short[] resample(short[] samples, int channels, float sourceRate, 
+			float targetRate)
+	{
+		if (sourceRate == targetRate)
+			return samples;
+		
+		int sourceFrames = samples.length / channels;
+		double step = sourceRate / (double) targetRate;
+		int targetFrames = (int) (sourceFrames / step);
+		
+		// When downsampling, the kernel is stretched to lower its cutoff frequency
+		double cutoff = Math.min(1, targetRate / (double) sourceRate);
+		int halfWidth = (int) Math.ceil(ZERO_CROSSINGS / cutoff);
+		
+		short[] result = new short[targetFrames * channels];
+		double[] sums = new double[channels];
+		for (int frame = 0; frame < targetFrames; frame++)
+		{
+			double position = frame * step;
+			int center = (int) position;
+			double weightSum = 0;
+			for (int c = 0; c < channels; c++)
+			{
+				sums[c] = 0;
+			}
+			
+			int first = Math.max(0, center - halfWidth + 1);
+			int last = Math.min(sourceFrames - 1, center + halfWidth);
+			for (int source = first; source <= last; source++)
+			{
+				double weight = kernelAt(Math.abs(position - source) * cutoff);
+				weightSum += weight;
+				for (int c = 0; c < channels; c++)
+				{
+					sums[c] += samples[source * channels + c] * weight;
+				}
+			}
+			
+			// Normalizes the result so that the edges don't lose volume
+			for (int c = 0; c < channels; c++)
+			{
+				double value = weightSum == 0 ? 0 : sums[c] / weightSum;
+				result[frame * channels + c] = (short) Math.max(Short.MIN_VALUE, 
+						Math.min(Short.MAX_VALUE, Math.round(value)));
+			}
+		}
+		
+		return result;
+	}
+	
+	/**
+	 * Converts the samples into another channel count. Mono samples are copied to each 
+	 * channel and multichannel samples are averaged into mono.
+	 * @param samples The interleaved samples
+	 * @param sourceChannels How many channels the samples have
+	 * @param targetChannels How many channels the samples should have (1 or 2)
+	 * @return The converted samples
+	 */
+	public static short[] convertChannels(short[] samples, int sourceChannels, 
+			int targetChannels)
+	{
+		if (sourceChannels == targetChannels)
+			return samples;
+		
+		int frames = samples.length / sourceChannels;
+		short[] result = new short[frames * targetChannels];
+		for (int frame = 0; frame < frames; frame++)
+		{
+			if (sourceChannels == 1)
+			{
+				for (int c = 0; c < targetChannels; c++)
+				{
+					result[frame * targetChannels + c] = samples[frame];
+				}
+			}
+			else if (targetChannels == 1)
+			{
+				int sum = 0;
+				for (int c = 0; c < sourceChannels; c++)
+				{
+					sum += samples[frame * sourceChannels + c];
+				}
+				result[frame] = (short) (sum / sourceChannels);
+			}
+			else
+			{
+				for (int c = 0; c < targetChannels; c++)
+				{
+					result[frame * targetChannels + c] = 
+							samples[frame * sourceChannels + Math.min(c, sourceChannels - 1)];
+				}
+			}
+		}
+		
+		return result;
+	}
+	
+	// The value of the windowed sinc kernel at the given distance (in zero crossings)
+	private static double kernelAt(double distance)
+	{
+		double index = distance * RESOLUTION;
+		int i = (int) index;
+		if (i >= kernel.length - 1)
+			return 0;
+		
+		double fraction = index - i;
+		return kernel[i] + (kernel[i + 1] - kernel[i]) * fraction;
+	}
+	
+	private static float[] createKernel()
+	{
+		// Sinc function with a blackman window
+		float[] values = new float[ZERO_CROSSINGS * RESOLUTION + 1];
+		for (int i = 0; i < values.length; i++)
+		{
+			double x = i / (double) RESOLUTION;
+			double sinc = i == 0 ? 1 : Math.sin(Math.PI * x) / (Math.PI * x);
+			double w = 0.5 + 0.5 * x / ZERO_CROSSINGS;
+			double window = 0.42 - 0.5 * Math.cos(2 * Math.PI * w) + 
+					0.08 * Math.cos(4 * Math.PI * w);
+			values[i] = (float) (sinc * window);
+		}
+		
+		return values;
+	}
+}
@@ -0,0 +1,355 @@
+package flux_wav;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.UnsupportedAudioFileException;
+
+/**
+ * StreamedSampleData reads the samples from the file while the sound is playing. Each reader 
+ * opens the file separately. Since the streams can't be rewound, a reader that will loop 
+ * opens its next stream on a loader thread in advance, so that the mixer thread doesn't 
+ * have to open the file and skip to the loop start. The mixer thread never opens a stream: 
+ * if the stream isn't ready when the reader is moved, the reader outputs silence until it 
+ * is.
+ * 
+ * @author Mikko Hilpinen
+ * @since 17.10.2026
+ */
+class StreamedSampleData implements WavSampleData
+{
+	// ATTRIBUTES	-----------------------------
+	
+	private static final ExecutorService loader = Executors.newCachedThreadPool(
+			new ThreadFactory()
+			{
+				@Override
+				public Thread newThread(Runnable task)
+				{
+					Thread thread = new Thread(task, "WavStreamLoader");
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
+	
+	private final File file;
+	private final float sampleRate;
+	private final AudioFormat format;
+	
+	
+	// CONSTRUCTOR	-----------------------------
+	
+	/**
+	 * Creates new streamed sample data
+	 * @param file The file that is streamed
+	 * @param sampleRate The sample rate the samples are converted to
+	 * @throws IOException If the file couldn't be read
+	 * @throws UnsupportedAudioFileException If the file's format isn't supported
+	 */
+	public StreamedSampleData(File file, float sampleRate) throws IOException, 
+			UnsupportedAudioFileException
+	{
+		this.file = file;
+		this.sampleRate = sampleRate;
+		this.format = getStreamFormat(AudioSystem.getAudioFileFormat(file).getFormat(), 
+				sampleRate);
+	}
+	
+	
+	// IMPLEMENTED METHODS	---------------------
+	
+	@Override
+	public AudioFormat getFormat()
+	{
+		return this.format;
+	}
+	
+	@Override
+	public WavSampleReader openReader() throws IOException, UnsupportedAudioFileException
+	{
+		return new Reader(openStream(this.file, this.sampleRate));
+	}
+	
+	@Override
+	public long getByteSize()
+	{
+		// Only the readers keep buffers
+		return 0;
+	}
+	
+	
+	// OTHER METHODS	-------------------------
+	
+	// Opens a new stream that starts from the given frame
+	private AudioInputStream openStream(long frame) throws IOException
+	{
+		AudioInputStream stream = null;
+		try
+		{
+			stream = openStream(this.file, this.sampleRate);
+		}
+		catch (UnsupportedAudioFileException e)
+		{
+			throw new IOException("Can't reopen " + this.file, e);
+		}
+		
+		long remaining = frame * stream.getFormat().getFrameSize();
+		while (remaining > 0)
+		{
+			long skipped = stream.skip(remaining);
+			if (skipped <= 0)
+				break;
+			remaining -= skipped;
+		}
+		
+		return stream;
+	}
+	
+	// Closes a stream that is being opened in the background once it has been opened
+	private static void discard(final Future<AudioInputStream> stream)
+	{
+		loader.execute(new Runnable()
+		{
+			@Override
+			public void run()
+			{
+				try
+				{
+					stream.get().close();
+				}
+				catch (InterruptedException | ExecutionException | IOException e)
+				{
+					// The stream was never opened or couldn't be closed
+				}
+			}
+		});
+	}
+	
+	/**
+	 * Opens an audio stream that converts the file's samples into 16-bit pcm in the given 
+	 * sample rate. The channel count is kept (up to stereo) so that mono sounds can be panned.
+	 * @param file The file that is opened
+	 * @param sampleRate The sample rate of the stream. {@link AudioSystem#NOT_SPECIFIED} if 
+	 * the file's own sample rate should be kept.
+	 * @return A stream that reads the file's samples
+	 * @throws IOException If the file couldn't be opened
+	 * @throws UnsupportedAudioFileException If the file's format isn't supported or can't 
+	 * be converted
+	 */
+	public static AudioInputStream openStream(File file, float sampleRate) throws 
+			IOException, UnsupportedAudioFileException
+	{
+		AudioInputStream audioInputStream = AudioSystem.getAudioInputStream(file);
+		
+		AudioFormat sourceformat = audioInputStream.getFormat();
+		AudioFormat targetformat = getStreamFormat(sourceformat, sampleRate);
+		if (targetformat == sourceformat)
+			return audioInputStream;
+		
+		try
+		{
+			return AudioSystem.getAudioInputStream(targetformat, audioInputStream);
+		}
+		catch (IllegalArgumentException e)
+		{
+			audioInputStream.close();
+			throw new UnsupportedAudioFileException("Can't convert " + file + " to " + 
+					targetformat);
+		}
+	}
+	
+	// Returns the format of the stream opened from a file with the given format
+	private static AudioFormat getStreamFormat(AudioFormat sourceformat, float sampleRate)
+	{
+		if (sampleRate == AudioSystem.NOT_SPECIFIED)
+			sampleRate = sourceformat.getSampleRate();
+		AudioFormat targetformat = new AudioFormat(sampleRate, 16, 
+				Math.min(2, sourceformat.getChannels()), true, false);
+		if (sourceformat.matches(targetformat))
+			return sourceformat;
+		return targetformat;
+	}
+	
+	
+	// SUBCLASSES	-----------------------------
+	
+	private class Reader implements WavSampleReader
+	{
+		// ATTRIBUTES	-------------------------
+		
+		private AudioInputStream stream;
+		private final int frameSize;
+		private byte[] bytes;
+		// The stream the reader waits for after a seek, while the current stream is null
+		private Future<AudioInputStream> preparedStream, pendingStream;
+		private long preparedFrame;
+		
+		
+		// CONSTRUCTOR	-------------------------
+		
+		public Reader(AudioInputStream stream)
+		{
+			this.stream = stream;
+			this.frameSize = stream.getFormat().getFrameSize();
+			this.bytes = null;
+			this.preparedStream = null;
+			this.pendingStream = null;
+			this.preparedFrame = -1;
+		}
+		
+		
+		// IMPLEMENTED METHODS	-----------------
+		
+		@Override
+		public int read(short[] buffer, int offset, int frames) throws IOException
+		{
+			// Outputs silence until the stream has been opened
+			if (this.stream == null && !adoptPendingStream())
+			{
+				Arrays.fill(buffer, offset * this.frameSize / 2, 
+						(offset + frames) * this.frameSize / 2, (short) 0);
+				return frames;
+			}
+			
+			int bytesNeeded = frames * this.frameSize;
+			if (this.bytes == null || this.bytes.length < bytesNeeded)
+			{
+				BufferPool.release(this.bytes);
+				this.bytes = BufferPool.getBytes(bytesNeeded);
+			}
+			
+			// Only full frames are returned
+			int bytesRead = 0;
+			while (bytesRead < bytesNeeded)
+			{
+				int n = this.stream.read(this.bytes, bytesRead, bytesNeeded - bytesRead);
+				if (n < 0)
+					break;
+				bytesRead += n;
+			}
+			
+			int framesRead = bytesRead / this.frameSize;
+			if (framesRead == 0)
+				return -1;
+			
+			int start = offset * this.frameSize / 2;
+			for (int i = 0; i < framesRead * this.frameSize / 2; i++)
+			{
+				buffer[start + i] = (short) ((this.bytes[2 * i] & 0xff) | 
+						(this.bytes[2 * i + 1] << 8));
+			}
+			
+			return framesRead;
+		}
+		
+		@Override
+		public void seek(long frame) throws IOException
+		{
+			// Streams can't be rewound so the file is opened again in the background. If the 
+			// stream was already prepared, it is used once it has been opened.
+			if (this.preparedStream == null || this.preparedFrame != frame)
+				prepareStream(frame, null);
+			if (this.pendingStream != null)
+				discard(this.pendingStream);
+			this.pendingStream = this.preparedStream;
+			this.preparedStream = null;
+			
+			// The old stream is closed in the background while the stream for the next 
+			// loop is opened
+			prepareStream(frame, this.stream);
+			this.stream = null;
+			adoptPendingStream();
+		}
+		
+		@Override
+		public void prepareSeek(long frame)
+		{
+			if (this.preparedStream == null || this.preparedFrame != frame)
+				prepareStream(frame, null);
+		}
+		
+		// Starts using the stream that was opened after a seek, if it is ready. Returns 
+		// whether there is a stream to read.
+		private boolean adoptPendingStream() throws IOException
+		{
+			if (this.pendingStream == null || !this.pendingStream.isDone())
+				return false;
+			
+			Future<AudioInputStream> pending = this.pendingStream;
+			this.pendingStream = null;
+			try
+			{
+				this.stream = pending.get();
+				return true;
+			}
+			catch (ExecutionException e)
+			{
+				throw new IOException("Can't reopen " + StreamedSampleData.this.file, 
+						e.getCause());
+			}
+			catch (InterruptedException e)
+			{
+				// The future is done, so getting the stream doesn't wait
+				Thread.currentThread().interrupt();
+				return false;
+			}
+		}
+		
+		// Opens a stream that starts from the given frame on the loader thread, closing an 
+		// old stream (optional) first
+		private void prepareStream(final long frame, final AudioInputStream oldStream)
+		{
+			if (this.preparedStream != null)
+				discard(this.preparedStream);
+			
+			this.preparedFrame = frame;
+			this.preparedStream = loader.submit(new Callable<AudioInputStream>()
+			{
+				@Override
+				public AudioInputStream call() throws IOException
+				{
+					if (oldStream != null)
+						oldStream.close();
+					return openStream(frame);
+				}
+			});
+		}
+		
+		@Override
+		public void close()
+		{
+			BufferPool.release(this.bytes);
+			this.bytes = null;
+			if (this.preparedStream != null)
+			{
+				discard(this.preparedStream);
+				this.preparedStream = null;
+			}
+			if (this.pendingStream != null)
+			{
+				discard(this.pendingStream);
+				this.pendingStream = null;
+			}
+			if (this.stream == null)
+				return;
+			try
+			{
+				this.stream.close();
+			}
+			catch (IOException e)
+			{
+				// Closing failures don't affect playback
+			}
+		}
+	}
+}
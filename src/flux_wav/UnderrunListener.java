@@ -0,0 +1,18 @@
+package flux_wav;
+
+/**
+ * UnderrunListeners are informed when a mixer's output runs out of audio to play, which is 
+ * heard as a click or a gap in the sound
+ * 
+ * @author Mikko Hilpinen
+ * @since 17.10.2026
+ */
+public interface UnderrunListener
+{
+	/**
+	 * This method is called when the mixer notices that its output has run out of audio. 
+	 * The method is called on the mixer thread, so it should return quickly.
+	 * @param mixer The mixer whose output ran out of audio
+	 */
+	public void onUnderrun(WavMixer mixer);
+}
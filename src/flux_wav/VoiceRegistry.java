@@ -0,0 +1,103 @@
+package flux_wav;
+
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * VoiceRegistry keeps track of the live voices of a single sound. Voices are added from the 
+ * game thread and removed from the mixer thread, so the registry supports concurrent 
+ * constant-time adding and removing. Iterating never throws a 
+ * ConcurrentModificationException, though voices added or removed during the iteration may 
+ * or may not be visited.
+ * 
+ * @author Mikko Hilpinen
+ * @since 17.10.2026
+ */
+class VoiceRegistry implements Iterable<WavVoice>
+{
+	// ATTRIBUTES	-----------------------------
+	
+	private final Set<WavVoice> voices;
+	
+	
+	// CONSTRUCTOR	-----------------------------
+	
+	/**
+	 * Creates a new empty registry
+	 */
+	public VoiceRegistry()
+	{
+		this.voices = ConcurrentHashMap.newKeySet();
+	}
+	
+	
+	// IMPLEMENTED METHODS	---------------------
+	
+	@Override
+	public Iterator<WavVoice> iterator()
+	{
+		return this.voices.iterator();
+	}
+	
+	
+	// OTHER METHODS	-------------------------
+	
+	/**
+	 * Adds a new voice to the registry
+	 * @param voice The voice that is added
+	 */
+	public void add(WavVoice voice)
+	{
+		this.voices.add(voice);
+	}
+	
+	/**
+	 * Removes a voice from the registry
+	 * @param voice The voice that is removed
+	 */
+	public void remove(WavVoice voice)
+	{
+		this.voices.remove(voice);
+	}
+	
+	/**
+	 * @return How many voices there currently are in the registry
+	 */
+	public int size()
+	{
+		return this.voices.size();
+	}
+	
+	/**
+	 * @return Is any of the voices still playing or paused
+	 */
+	public boolean containsLiveVoices()
+	{
+		for (WavVoice voice : this.voices)
+		{
+			if (voice.isAlive())
+				return true;
+		}
+		return false;
+	}
+	
+	/**
+	 * Finds the oldest voice that is still alive and in the given state
+	 * @param state The state the voice must be in (null if any live state is accepted)
+	 * @return The oldest live voice in the given state or null if there is no such voice
+	 */
+	public WavVoice getOldest(WavVoice.State state)
+	{
+		WavVoice oldest = null;
+		for (WavVoice voice : this.voices)
+		{
+			if (!voice.isAlive() || (state != null && voice.getState() != state))
+				continue;
+			if (oldest == null || voice.getId() < oldest.getId())
+				oldest = voice;
+		}
+		
+		return oldest;
+	}
+}
@@ -0,0 +1,61 @@
+package flux_wav;
+
+/**
+ * The voice steal policy determines what happens when a sound is played while its voice 
+ * limit (or the mixer's voice budget) is full
+ * 
+ * @author Mikko Hilpinen
+ * @since 17.10.2026
+ */
+public enum VoiceStealPolicy
+{
+	/**
+	 * The voice that has been playing the longest is stopped to make room for the new one
+	 */
+	OLDEST,
+	/**
+	 * The voice with the lowest volume is stopped to make room for the new one
+	 */
+	QUIETEST,
+	/**
+	 * The new voice is not played. Voices of sounds with a lower priority may still be 
+	 * stopped to make room in the mixer's voice budget.
+	 */
+	REJECT_NEW;
+	
+	
+	// OTHER METHODS	---------------------------
+	
+	/**
+	 * Finds a steal policy the given string represents
+	 * @param s A string that represents a steal policy
+	 * @return The steal policy represented by the string or null if no such policy can be 
+	 * found
+	 */
+	public static VoiceStealPolicy parseFromString(String s)
+	{
+		for (VoiceStealPolicy policy : values())
+		{
+			if (policy.toString().equalsIgnoreCase(s))
+				return policy;
+		}
+		
+		return null;
+	}
+	
+	/**
+	 * Checks whether a new voice should replace the given candidate rather than the 
+	 * currently chosen victim
+	 * @param candidate The voice that could be stopped
+	 * @param victim The voice that would be stopped so far (may be null)
+	 * @return Is the candidate a better victim than the current one
+	 */
+	boolean prefers(WavVoice candidate, WavVoice victim)
+	{
+		if (victim == null)
+			return true;
+		if (this == QUIETEST)
+			return candidate.getVolume() < victim.getVolume();
+		return candidate.getId() < victim.getId();
+	}
+}
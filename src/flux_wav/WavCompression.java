@@ -0,0 +1,41 @@
+package flux_wav;
+
+/**
+ * The compression determines how the samples of a resident wavSound are stored in memory
+ * 
+ * @author Mikko Hilpinen
+ * @since 17.10.2026
+ */
+public enum WavCompression
+{
+	/**
+	 * The samples are kept as 16-bit pcm
+	 */
+	NONE,
+	/**
+	 * The samples are compressed with IMA-ADPCM, which takes about a fourth of the memory. 
+	 * The samples are decoded block by block while the sound plays, which costs a little 
+	 * cpu time and adds some noise to quiet sounds.
+	 */
+	ADPCM;
+	
+	
+	// OTHER METHODS	---------------------------
+	
+	/**
+	 * Finds a compression the given string represents
+	 * @param s A string that represents a compression
+	 * @return The compression represented by the string or null if no such compression can 
+	 * be found
+	 */
+	public static WavCompression parseFromString(String s)
+	{
+		for (WavCompression compression : values())
+		{
+			if (compression.toString().equalsIgnoreCase(s))
+				return compression;
+		}
+		
+		return null;
+	}
+}
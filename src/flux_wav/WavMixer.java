@@ -0,0 +1,666 @@
+package flux_wav;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.LockSupport;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.LineUnavailableException;
+
+import flux_sound.SoundEvent.SoundEventType;
+import flux_sound.SoundMetrics;
+import flux_sound.StartStage;
+
+/**
+ * WavMixer owns a single output (usually an audio line) and sums all the active wav voices into it on a
+ * single mixer thread. This way playing a sound doesn't require a new thread, a new line or
+ * a new buffer. The mixer thread parks whenever there are no voices to play.
+ *
+ * @author Mikko Hilpinen
+ * @since 17.10.2026
+ */
+public class WavMixer
+{
+	// ATTRIBUTES	-----------------------------
+	
+	/**
+	 * The format used by the default mixer
+	 */
+	public static final AudioFormat DEFAULT_FORMAT = new AudioFormat(44100, 16, 2, true, false);
+	/**
+	 * How many voices a mixer plays at most by default
+	 */
+	public static final int DEFAULT_MAX_VOICES = 64;
+	/**
+	 * How many times larger than the latency profile's buffer the buffer can grow when 
+	 * adaptive buffering is used
+	 */
+	public static final int MAX_BUFFER_GROWTH = 8;
+	
+	// How many underruns in a row make the buffer grow and how many seconds without 
+	// underruns make it shrink again
+	private static final int GROW_AFTER_UNDERRUNS = 2;
+	private static final int SHRINK_AFTER_SECONDS = 10;
+	
+	private static WavMixer defaultMixer = null;
+	private static LatencyProfile defaultProfile = LatencyProfile.BALANCED;
+	private static MixerThreadMode defaultThreadMode = MixerThreadMode.PLATFORM;
+	private static AudioOutput defaultOutput = null;
+	
+	private final AudioFormat format;
+	private final LatencyProfile profile;
+	private final MixerThreadMode threadMode;
+	private final AudioOutput output;
+	private final int blockFrames;
+	private final Queue<WavVoice> pendingVoices;
+	private final Set<WavVoice> liveVoices;
+	private final List<UnderrunListener> underrunListeners;
+	private final Object lock, budgetLock;
+	private int maxVoices;
+	private volatile Thread thread;
+	private volatile int voiceCount, bufferFrames;
+	private volatile boolean adaptiveBuffering;
+	private volatile long underruns, outputOpenedNanos;
+	
+	
+	// CONSTRUCTOR	-----------------------------
+	
+	/**
+	 * Creates a new mixer. The mixer thread is started when the first voice is added.
+	 * @param format The format the mixer writes to the line. Must be signed 16-bit
+	 * little-endian stereo pcm.
+	 * @param profile The latency profile that determines the mixer's buffer sizes
+	 */
+	public WavMixer(AudioFormat format, LatencyProfile profile)
+	{
+		this(format, profile, MixerThreadMode.PLATFORM);
+	}
+	
+	/**
+	 * Creates a new mixer. The mixer thread is started when the first voice is added.
+	 * @param format The format the mixer writes to the line. Must be signed 16-bit
+	 * little-endian stereo pcm.
+	 * @param profile The latency profile that determines the mixer's buffer sizes
+	 * @param threadMode The kind of thread the mixer runs on
+	 */
+	public WavMixer(AudioFormat format, LatencyProfile profile, MixerThreadMode threadMode)
+	{
+		this(format, profile, threadMode, new LineAudioOutput());
+	}
+	
+	/**
+	 * Creates a new mixer. The mixer thread is started when the first voice is added.
+	 * @param format The format the mixer writes to the output. Must be signed 16-bit
+	 * little-endian stereo pcm.
+	 * @param profile The latency profile that determines the mixer's buffer sizes
+	 * @param threadMode The kind of thread the mixer runs on
+	 * @param output The output the mixer writes to. The mixer opens the output when it 
+	 * starts.
+	 */
+	public WavMixer(AudioFormat format, LatencyProfile profile, MixerThreadMode threadMode, 
+			AudioOutput output)
+	{
+		if (format.getChannels() != 2 || format.getSampleSizeInBits() != 16 ||
+				format.isBigEndian() ||
+				!AudioFormat.Encoding.PCM_SIGNED.equals(format.getEncoding()))
+			throw new IllegalArgumentException("Unsupported mixer format " + format);
+		
+		this.format = format;
+		this.profile = profile;
+		this.threadMode = threadMode;
+		this.output = output;
+		this.blockFrames = profile.getBlockFrames();
+		this.pendingVoices = new ConcurrentLinkedQueue<>();
+		this.liveVoices = ConcurrentHashMap.newKeySet();
+		this.underrunListeners = new CopyOnWriteArrayList<>();
+		this.lock = new Object();
+		this.budgetLock = new Object();
+		this.maxVoices = DEFAULT_MAX_VOICES;
+		this.thread = null;
+		this.voiceCount = 0;
+		this.bufferFrames = profile.getLineBufferFrames();
+		this.adaptiveBuffering = false;
+		this.underruns = 0;
+	}
+	
+	
+	// GETTERS & SETTERS	---------------------
+	
+	/**
+	 * @return The mixer used by the wavSounds
+	 */
+	public static synchronized WavMixer getDefaultMixer()
+	{
+		if (defaultMixer == null)
+		{
+			AudioOutput output = defaultOutput;
+			if (output == null)
+				output = new LineAudioOutput();
+			defaultMixer = new WavMixer(DEFAULT_FORMAT, defaultProfile, defaultThreadMode, 
+					output);
+		}
+		return defaultMixer;
+	}
+	
+	/**
+	 * @return The format of the default mixer. Unlike {@link #getDefaultMixer()}, this 
+	 * doesn't create the mixer, so the sounds can be loaded before the mixer is set up.
+	 */
+	public static synchronized AudioFormat getDefaultFormat()
+	{
+		if (defaultMixer == null)
+			return DEFAULT_FORMAT;
+		return defaultMixer.getFormat();
+	}
+	
+	/**
+	 * Changes the latency profile used by the default mixer. This should be called before 
+	 * any wavSounds are played, since the default mixer is created on the first play.
+	 * @param profile The latency profile used by the default mixer (balanced by default)
+	 */
+	public static synchronized void setDefaultLatencyProfile(LatencyProfile profile)
+	{
+		if (defaultMixer != null && defaultMixer.getLatencyProfile() != profile)
+			System.err.println("The default mixer already uses the latency profile " + 
+					defaultMixer.getLatencyProfile());
+		defaultProfile = profile;
+	}
+	
+	/**
+	 * Changes the kind of thread the default mixer runs on. This should be called at 
+	 * startup, before any wavSounds are played, since the default mixer is created on the 
+	 * first play.
+	 * @param mode The kind of thread the default mixer runs on (platform by default)
+	 */
+	public static synchronized void setDefaultThreadMode(MixerThreadMode mode)
+	{
+		if (defaultMixer != null && defaultMixer.getThreadMode() != mode)
+			System.err.println("The default mixer already runs on a " + 
+					defaultMixer.getThreadMode() + " thread");
+		defaultThreadMode = mode;
+	}
+	
+	/**
+	 * Changes the output the default mixer writes to. This can be used, for example, to 
+	 * run the sounds without an audio device. This should be called at startup, before 
+	 * any wavSounds are played, since the default mixer is created on the first play.
+	 * @param output The output the default mixer writes to (null for the system's audio 
+	 * line, which is the default)
+	 * @see NullAudioOutput
+	 */
+	public static synchronized void setDefaultOutput(AudioOutput output)
+	{
+		if (defaultMixer != null && defaultMixer.getOutput() != output)
+			System.err.println("The default mixer already writes to " + 
+					defaultMixer.getOutput());
+		defaultOutput = output;
+	}
+	
+	/**
+	 * @return The format the mixer outputs. Voices must be read in this sample rate.
+	 */
+	public AudioFormat getFormat()
+	{
+		return this.format;
+	}
+	
+	/**
+	 * @return The latency profile that determines the mixer's buffer sizes
+	 */
+	public LatencyProfile getLatencyProfile()
+	{
+		return this.profile;
+	}
+	
+	/**
+	 * @return The output the mixer writes to
+	 */
+	public AudioOutput getOutput()
+	{
+		return this.output;
+	}
+	
+	/**
+	 * @return The kind of thread the mixer runs on
+	 */
+	public MixerThreadMode getThreadMode()
+	{
+		return this.threadMode;
+	}
+	
+	/**
+	 * @return How many voices the mixer plays at most. 0 or less if unlimited.
+	 */
+	public int getMaxVoices()
+	{
+		return this.maxVoices;
+	}
+	
+	/**
+	 * Changes the mixer's global voice budget. The voices that are already playing are not 
+	 * affected.
+	 * @param maxVoices How many voices the mixer plays at most. 0 or less if unlimited.
+	 */
+	public void setMaxVoices(int maxVoices)
+	{
+		this.maxVoices = maxVoices;
+	}
+	
+	/**
+	 * @return How many voices are currently being mixed
+	 */
+	public int getVoiceCount()
+	{
+		return this.voiceCount;
+	}
+	
+	/**
+	 * @return How many times the output has run out of audio
+	 */
+	public long getUnderrunCount()
+	{
+		return this.underruns;
+	}
+	
+	/**
+	 * @return The {@link System#nanoTime()} at which the mixer last opened its output. 0 if 
+	 * the output hasn't been opened yet.
+	 */
+	long getOutputOpenedNanos()
+	{
+		return this.outputOpenedNanos;
+	}
+	
+	/**
+	 * @return How many frames the mixer currently keeps buffered in the output. With 
+	 * adaptive buffering this changes according to the underruns.
+	 */
+	public int getBufferFrames()
+	{
+		return this.bufferFrames;
+	}
+	
+	/**
+	 * @return Does the mixer grow its buffer after repeated underruns
+	 */
+	public boolean usesAdaptiveBuffering()
+	{
+		return this.adaptiveBuffering;
+	}
+	
+	/**
+	 * Changes whether the mixer grows its buffer after repeated underruns and shrinks it 
+	 * back once the playback has been stable for a while. This allows using a low 
+	 * latency profile on machines that can't always keep up with it. The buffer never 
+	 * shrinks below the latency profile's buffer. The change takes effect when the mixer 
+	 * next opens its output, so this should be called before any voices are played.
+	 * @param adaptive Should the buffer size adapt to the underruns (false by default)
+	 * @see #MAX_BUFFER_GROWTH
+	 */
+	public void setAdaptiveBuffering(boolean adaptive)
+	{
+		this.adaptiveBuffering = adaptive;
+	}
+	
+	
+	// OTHER METHODS	-------------------------
+	
+	/**
+	 * Adds a new listener that will be informed about the output's underruns
+	 * @param listener The listener that is added
+	 */
+	public void addUnderrunListener(UnderrunListener listener)
+	{
+		this.underrunListeners.add(listener);
+	}
+	
+	/**
+	 * Removes a previously added underrun listener
+	 * @param listener The listener that is removed
+	 */
+	public void removeUnderrunListener(UnderrunListener listener)
+	{
+		this.underrunListeners.remove(listener);
+	}
+	
+	/**
+	 * Reserves room for a new voice in the voice budget. If the budget is full, a voice 
+	 * with a lower (or the same) priority may be stolen, depending on the new sound's 
+	 * steal policy. A reserved voice still has to be added to the mix with 
+	 * {@link #addVoice(WavVoice)}.
+	 * @param voice The voice that should be played
+	 * @return Was there room for the voice
+	 */
+	boolean reserveVoice(WavVoice voice)
+	{
+		WavSound sound = voice.getSound();
+		
+		synchronized (this.budgetLock)
+		{
+			if (this.maxVoices > 0 && this.liveVoices.size() >= this.maxVoices)
+			{
+				// Finds the voice with the lowest priority, preferring voices according 
+				// to the steal policy
+				VoiceStealPolicy policy = sound.getStealPolicy();
+				WavVoice victim = null;
+				for (WavVoice candidate : this.liveVoices)
+				{
+					int priority = candidate.getSound().getPriority();
+					if (priority > sound.getPriority() || (priority == sound.getPriority() && 
+							policy == VoiceStealPolicy.REJECT_NEW))
+						continue;
+					
+					if (victim == null || priority < victim.getSound().getPriority() || 
+							(priority == victim.getSound().getPriority() && 
+							policy.prefers(candidate, victim)))
+						victim = candidate;
+				}
+				
+				if (victim == null)
+					return false;
+				
+				stealVoice(victim);
+			}
+			
+			this.liveVoices.add(voice);
+		}
+		
+		return true;
+	}
+	
+	/**
+	 * Stops a voice in order to make room for another one. The voice is no longer counted 
+	 * towards the voice budget.
+	 * @param voice The voice that is stolen
+	 */
+	void stealVoice(WavVoice voice)
+	{
+		this.liveVoices.remove(voice);
+		voice.steal();
+	}
+	
+	/**
+	 * Adds a voice to the mix. The voice will start playing during the next mixer cycle.
+	 * @param voice The voice that will be played
+	 */
+	void addVoice(WavVoice voice)
+	{
+		this.pendingVoices.add(voice);
+		
+		// Starts the mixer thread if necessary, otherwise wakes it up
+		Thread mixerThread = this.thread;
+		if (mixerThread == null)
+		{
+			synchronized (this.lock)
+			{
+				if (this.thread == null)
+				{
+					this.thread = this.threadMode.newThread(new MixerLoop(), "WavMixer");
+					this.thread.start();
+					return;
+				}
+				mixerThread = this.thread;
+			}
+		}
+		LockSupport.unpark(mixerThread);
+	}
+	
+	
+	// SUBCLASSES	-----------------------------
+	
+	private class MixerLoop implements Runnable
+	{
+		// ATTRIBUTES	-------------------------
+		
+		private final List<WavVoice> voices, startedVoices;
+		private final Queue<WavVoice> unplayedVoices;
+		private final float[] mixBuffer;
+		private final byte[] outputBuffer;
+		private boolean continuous, adaptive;
+		private int underrunsInRow, stableBlocks;
+		private long writtenFrames;
+		
+		
+		// CONSTRUCTOR	-------------------------
+		
+		public MixerLoop()
+		{
+			this.voices = new ArrayList<>();
+			this.startedVoices = new ArrayList<>();
+			this.unplayedVoices = new ArrayDeque<>();
+			this.mixBuffer = new float[WavMixer.this.blockFrames * 2];
+			this.outputBuffer = new byte[WavMixer.this.blockFrames * 4];
+			this.continuous = false;
+			this.adaptive = false;
+			this.underrunsInRow = 0;
+			this.stableBlocks = 0;
+			this.writtenFrames = 0;
+		}
+		
+		
+		// IMPLEMENTED METHODS	-----------------
+		
+		@Override
+		public void run()
+		{
+			// Opens the output. With adaptive buffering the output has room to grow the 
+			// buffer but is only filled up to the current buffer size.
+			AudioOutput output = WavMixer.this.output;
+			this.adaptive = WavMixer.this.adaptiveBuffering && output.isRealTime();
+			int capacity = WavMixer.this.profile.getLineBufferFrames();
+			if (this.adaptive)
+				capacity *= MAX_BUFFER_GROWTH;
+			WavMixer.this.bufferFrames = WavMixer.this.profile.getLineBufferFrames();
+			try
+			{
+				output.open(WavMixer.this.format, capacity * WavMixer.this.format.getFrameSize());
+				WavMixer.this.outputOpenedNanos = System.nanoTime();
+			}
+			catch (LineUnavailableException e)
+			{
+				System.err.println("Audioline unavailable");
+				e.printStackTrace();
+				SoundMetrics.recordLineOpenFailure();
+				discardVoices();
+				return;
+			}
+			
+			try
+			{
+				while (waitForVoices())
+				{
+					mixBlock();
+					if (output.isRealTime())
+					{
+						checkUnderrun(output);
+						waitForRoom(output);
+					}
+					output.write(this.outputBuffer, 0, this.outputBuffer.length);
+					this.continuous = true;
+					trackStartedVoices(output);
+				}
+			}
+			finally
+			{
+				output.close();
+			}
+		}
+		
+		
+		// OTHER METHODS	---------------------
+		
+		// Adds the pending voices to the mix and parks if there is nothing to play
+		private boolean waitForVoices()
+		{
+			while (true)
+			{
+				WavVoice voice = null;
+				while ((voice = WavMixer.this.pendingVoices.poll()) != null)
+					this.voices.add(voice);
+				WavMixer.this.voiceCount = this.voices.size();
+				
+				if (!this.voices.isEmpty())
+					return true;
+				
+				// New voices unpark the thread. The output may run empty while the mixer 
+				// is idle, which is not an underrun.
+				if (WavMixer.this.pendingVoices.isEmpty())
+				{
+					this.continuous = false;
+					LockSupport.park(WavMixer.this);
+				}
+				if (Thread.currentThread().isInterrupted())
+					return false;
+			}
+		}
+		
+		private void mixBlock()
+		{
+			int frames = WavMixer.this.blockFrames;
+			Arrays.fill(this.mixBuffer, 0);
+			
+			// Mixes each voice, removing the ones that were paused or that ended
+			for (int i = 0; i < this.voices.size(); i++)
+			{
+				WavVoice voice = this.voices.get(i);
+				WavVoice.State state = voice.getState();
+				if (state == WavVoice.State.PLAYING && !voice.hasMixed())
+					this.startedVoices.add(voice);
+				
+				if (state == WavVoice.State.PAUSED)
+				{
+					if (voice.deschedule())
+					{
+						this.voices.remove(i);
+						i--;
+					}
+				}
+				else if (state != WavVoice.State.PLAYING || !voice.mix(this.mixBuffer, frames))
+				{
+					this.voices.remove(i);
+					i--;
+					finishVoice(voice);
+				}
+			}
+			
+			// Clips and writes the samples into the output buffer
+			MixerDsp.toPcm(this.mixBuffer, this.outputBuffer, this.mixBuffer.length);
+		}
+		
+		// Records when the voices that started in the last block were written to the output 
+		// and when the output actually played their first frames
+		private void trackStartedVoices(AudioOutput output)
+		{
+			for (WavVoice voice : this.startedVoices)
+			{
+				voice.recordStartStage(StartStage.FIRST_WRITE);
+				voice.setOutputFrame(this.writtenFrames);
+				this.unplayedVoices.add(voice);
+			}
+			this.startedVoices.clear();
+			this.writtenFrames += WavMixer.this.blockFrames;
+			
+			long playedFrames = output.getFramePosition();
+			while (!this.unplayedVoices.isEmpty() && 
+					this.unplayedVoices.peek().getOutputFrame() < playedFrames)
+			{
+				this.unplayedVoices.poll().recordStartStage(StartStage.FIRST_PLAYED);
+			}
+		}
+		
+		// The output has run out of audio if its buffer is empty even though the mixer has 
+		// been writing to it without breaks
+		private void checkUnderrun(AudioOutput output)
+		{
+			if (!this.continuous || output.available() < output.getBufferSize())
+			{
+				// Shrinks the buffer back after the playback has been stable for a while
+				this.stableBlocks ++;
+				if (this.adaptive && this.stableBlocks >= SHRINK_AFTER_SECONDS * 
+						WavMixer.this.format.getFrameRate() / WavMixer.this.blockFrames)
+				{
+					this.stableBlocks = 0;
+					this.underrunsInRow = 0;
+					WavMixer.this.bufferFrames = Math.max(
+							WavMixer.this.profile.getLineBufferFrames(), 
+							WavMixer.this.bufferFrames / 2);
+				}
+				return;
+			}
+			
+			WavMixer.this.underruns ++;
+			SoundMetrics.recordUnderrun();
+			for (UnderrunListener listener : WavMixer.this.underrunListeners)
+			{
+				listener.onUnderrun(WavMixer.this);
+			}
+			// Each playing voice was cut
+			for (int i = 0; i < this.voices.size(); i++)
+			{
+				WavVoice voice = this.voices.get(i);
+				voice.getSound().onVoiceEvent(voice, SoundEventType.UNDERRUN);
+			}
+			
+			// Grows the buffer after repeated underruns
+			this.stableBlocks = 0;
+			this.underrunsInRow ++;
+			if (this.adaptive && this.underrunsInRow >= GROW_AFTER_UNDERRUNS)
+			{
+				this.underrunsInRow = 0;
+				WavMixer.this.bufferFrames = Math.min(WavMixer.this.profile.getLineBufferFrames() * 
+						MAX_BUFFER_GROWTH, WavMixer.this.bufferFrames * 2);
+			}
+		}
+		
+		// With adaptive buffering, waits until the output has less than the current buffer 
+		// size worth of audio
+		private void waitForRoom(AudioOutput output)
+		{
+			if (!this.adaptive)
+				return;
+			
+			int frameSize = WavMixer.this.format.getFrameSize();
+			int limit = Math.max(WavMixer.this.bufferFrames * frameSize, 
+					this.outputBuffer.length);
+			while (true)
+			{
+				int buffered = output.getBufferSize() - output.available();
+				int excess = buffered + this.outputBuffer.length - limit;
+				if (excess <= 0 || Thread.currentThread().isInterrupted())
+					return;
+				
+				LockSupport.parkNanos((long) (excess / frameSize * 1000000000.0 / 
+						WavMixer.this.format.getFrameRate()));
+			}
+		}
+		
+		private void finishVoice(WavVoice voice)
+		{
+			voice.finish();
+			WavMixer.this.liveVoices.remove(voice);
+			voice.getSound().onVoiceEnd(voice);
+		}
+		
+		private void discardVoices()
+		{
+			synchronized (WavMixer.this.lock)
+			{
+				WavMixer.this.thread = null;
+			}
+			
+			WavVoice voice = null;
+			while ((voice = WavMixer.this.pendingVoices.poll()) != null)
+			{
+				voice.stop();
+				finishVoice(voice);
+			}
+		}
+	}
+}
@@ -0,0 +1,378 @@
+package flux_wav;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.sound.sampled.AudioFileFormat;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.UnsupportedAudioFileException;
+
+import flux_sound.SoundMetrics;
+
+/**
+ * WavSampleCache keeps the decoded samples of the resident wavSounds in memory so that each 
+ * file is only read and decoded once, no matter how many times it is played. The cache 
+ * can be given a byte budget, in which case the least recently used samples are evicted 
+ * once the budget is exceeded. The evicted samples are decoded again when they are next 
+ * played. The samples are cached separately for each format they are requested in. If 
+ * multiple threads need the same samples at once, only one of them decodes the file while 
+ * the others wait for it.
+ * 
+ * @author Mikko Hilpinen
+ * @since 17.10.2026
+ */
+public class WavSampleCache
+{
+	// ATTRIBUTES	-----------------------------
+	
+	/**
+	 * How large sounds are kept resident by default when their storage mode is auto (4 MB, 
+	 * about 23 seconds of stereo sound)
+	 */
+	public static final long DEFAULT_RESIDENT_THRESHOLD = 4 * 1024 * 1024;
+	
+	// The samples are kept in the order of use, the least recently used first
+	private static final LinkedHashMap<Key, WavSampleData> samples = 
+			new LinkedHashMap<>(16, 0.75f, true);
+	private static final Map<Key, FutureTask<WavSampleData>> pendingDecodes = new HashMap<>();
+	private static final AtomicLong hits = new AtomicLong();
+	private static final AtomicLong misses = new AtomicLong();
+	private static final AtomicLong evictions = new AtomicLong();
+	private static long byteSize = 0;
+	private static long byteBudget = 0;
+	private static volatile long residentThreshold = DEFAULT_RESIDENT_THRESHOLD;
+	
+	
+	// CONSTRUCTOR	-----------------------------
+	
+	private WavSampleCache()
+	{
+		// The interface is static
+	}
+	
+	
+	// GETTERS & SETTERS	---------------------
+	
+	/**
+	 * @return How many bytes the cached samples currently take
+	 */
+	public static synchronized long getByteSize()
+	{
+		return byteSize;
+	}
+	
+	/**
+	 * @return How many bytes the cached samples may take. 0 or less if unlimited.
+	 */
+	public static synchronized long getByteBudget()
+	{
+		return byteBudget;
+	}
+	
+	/**
+	 * Changes how much memory the cached samples may take. If the cache is already larger, 
+	 * the least recently used samples are evicted right away. The sounds that are currently 
+	 * playing are not affected.
+	 * @param budget How many bytes the cached samples may take. 0 or less if unlimited 
+	 * (default).
+	 */
+	public static synchronized void setByteBudget(long budget)
+	{
+		byteBudget = budget;
+		evict(null);
+	}
+	
+	/**
+	 * @return How large sounds (decoded, in bytes) are kept resident when their storage mode 
+	 * is auto. Larger sounds are streamed.
+	 */
+	public static long getResidentThreshold()
+	{
+		return residentThreshold;
+	}
+	
+	/**
+	 * Changes how large sounds are kept resident when their storage mode is auto. The change 
+	 * affects the sounds that haven't been played or preloaded yet.
+	 * @param threshold How many bytes a decoded sound may take and still be kept resident
+	 * @see #DEFAULT_RESIDENT_THRESHOLD
+	 * @see WavStorageMode#AUTO
+	 */
+	public static void setResidentThreshold(long threshold)
+	{
+		residentThreshold = threshold;
+	}
+	
+	/**
+	 * @return How many times the requested samples were found from the cache
+	 */
+	public static long getHitCount()
+	{
+		return hits.get();
+	}
+	
+	/**
+	 * @return How many times the requested samples had to be decoded
+	 */
+	public static long getMissCount()
+	{
+		return misses.get();
+	}
+	
+	/**
+	 * @return How many times samples have been evicted to keep the cache within its budget
+	 */
+	public static long getEvictionCount()
+	{
+		return evictions.get();
+	}
+	
+	/**
+	 * @return How large a portion of the requests were found from the cache [0, 1]. 0 if 
+	 * there have been no requests.
+	 */
+	public static double getHitRatio()
+	{
+		long hitCount = getHitCount();
+		long total = hitCount + getMissCount();
+		if (total == 0)
+			return 0;
+		return hitCount / (double) total;
+	}
+	
+	
+	// OTHER METHODS	-------------------------
+	
+	/**
+	 * Removes all the samples from the cache. The sounds that are currently playing are not 
+	 * affected.
+	 */
+	public static synchronized void clear()
+	{
+		samples.clear();
+		byteSize = 0;
+	}
+	
+	/**
+	 * Resets the hit, miss and eviction counters
+	 */
+	public static void resetStatistics()
+	{
+		hits.set(0);
+		misses.set(0);
+		evictions.set(0);
+	}
+	
+	/**
+	 * Estimates how many bytes the given file takes once it has been decoded
+	 * @param file The file that is checked
+	 * @param sampleRate The sample rate the file would be decoded in
+	 * @return How many bytes the decoded samples would take. -1 if the length of the file 
+	 * can't be determined.
+	 * @throws IOException If the file couldn't be read
+	 * @throws UnsupportedAudioFileException If the file isn't in a supported format
+	 */
+	static long estimateByteSize(File file, float sampleRate) throws IOException, 
+			UnsupportedAudioFileException
+	{
+		AudioFileFormat fileFormat = AudioSystem.getAudioFileFormat(file);
+		long frames = fileFormat.getFrameLength();
+		if (frames == AudioSystem.NOT_SPECIFIED)
+			return -1;
+		
+		int channels = Math.min(2, fileFormat.getFormat().getChannels());
+		return (long) (frames * (double) sampleRate / fileFormat.getFormat().getSampleRate()) * 
+				channels * 2;
+	}
+	
+	/**
+	 * Finds the decoded samples of the given file, decoding the file if necessary
+	 * @param file The file whose samples are needed
+	 * @param sampleRate The sample rate the samples should be in
+	 * @param channels How many channels the samples should have. 0 if the file's own 
+	 * channel count should be kept.
+	 * @param compression How the samples should be stored
+	 * @return The decoded samples of the file
+	 * @throws IOException If the file couldn't be read
+	 * @throws UnsupportedAudioFileException If the file isn't in a supported format
+	 */
+	static WavSampleData getSamples(final File file, final float sampleRate, 
+			final int channels, final WavCompression compression) throws IOException, 
+			UnsupportedAudioFileException
+	{
+		Key key = new Key(file.getAbsoluteFile(), sampleRate, channels, compression);
+		FutureTask<WavSampleData> decode = null;
+		boolean decodes = false;
+		
+		synchronized (WavSampleCache.class)
+		{
+			WavSampleData data = samples.get(key);
+			if (data != null)
+			{
+				hits.incrementAndGet();
+				SoundMetrics.recordCacheHit();
+				return data;
+			}
+			
+			// If another thread is already decoding the samples, waits for it instead
+			decode = pendingDecodes.get(key);
+			if (decode == null)
+			{
+				decode = new FutureTask<>(new Callable<WavSampleData>()
+				{
+					@Override
+					public WavSampleData call() throws Exception
+					{
+						ResidentSampleData decoded = ResidentSampleData.decode(file, 
+								sampleRate, channels);
+						if (compression == WavCompression.ADPCM)
+							return AdpcmSampleData.encode(decoded);
+						return decoded;
+					}
+				});
+				pendingDecodes.put(key, decode);
+				decodes = true;
+			}
+		}
+		
+		if (!decodes)
+		{
+			hits.incrementAndGet();
+			SoundMetrics.recordCacheHit();
+			return waitFor(decode);
+		}
+		
+		// The file is decoded outside the lock so that the other sounds can still be 
+		// played meanwhile
+		misses.incrementAndGet();
+		SoundMetrics.recordCacheMiss();
+		decode.run();
+		WavSampleData data = null;
+		try
+		{
+			data = waitFor(decode);
+		}
+		finally
+		{
+			synchronized (WavSampleCache.class)
+			{
+				pendingDecodes.remove(key);
+				if (data != null)
+				{
+					WavSampleData previous = samples.put(key, data);
+					if (previous != null)
+						byteSize -= previous.getByteSize();
+					byteSize += data.getByteSize();
+					evict(key);
+				}
+			}
+		}
+		
+		return data;
+	}
+	
+	// Returns the result of a decode, throwing the exception the decode failed with
+	private static WavSampleData waitFor(FutureTask<WavSampleData> decode) throws 
+			IOException, UnsupportedAudioFileException
+	{
+		try
+		{
+			return decode.get();
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while waiting for the samples");
+		}
+		catch (ExecutionException e)
+		{
+			Throwable cause = e.getCause();
+			if (cause instanceof IOException)
+				throw (IOException) cause;
+			if (cause instanceof UnsupportedAudioFileException)
+				throw (UnsupportedAudioFileException) cause;
+			if (cause instanceof RuntimeException)
+				throw (RuntimeException) cause;
+			if (cause instanceof Error)
+				throw (Error) cause;
+			throw new IOException(cause);
+		}
+	}
+	
+	// Removes the least recently used samples until the cache fits its budget. The 
+	// protected samples are never removed.
+	private static void evict(Key protectedKey)
+	{
+		if (byteBudget <= 0)
+			return;
+		
+		Iterator<Map.Entry<Key, WavSampleData>> iterator = samples.entrySet().iterator();
+		while (byteSize > byteBudget && iterator.hasNext())
+		{
+			Map.Entry<Key, WavSampleData> entry = iterator.next();
+			if (entry.getKey().equals(protectedKey))
+				continue;
+			
+			byteSize -= entry.getValue().getByteSize();
+			iterator.remove();
+			evictions.incrementAndGet();
+		}
+	}
+	
+	
+	// SUBCLASSES	-----------------------------
+	
+	// Identifies the samples of a file in a certain format
+	private static class Key
+	{
+		// ATTRIBUTES	-------------------------
+		
+		private final File file;
+		private final float sampleRate;
+		private final int channels;
+		private final WavCompression compression;
+		
+		
+		// CONSTRUCTOR	-------------------------
+		
+		public Key(File file, float sampleRate, int channels, WavCompression compression)
+		{
+			this.file = file;
+			this.sampleRate = sampleRate;
+			this.channels = channels;
+			this.compression = compression;
+		}
+		
+		
+		// IMPLEMENTED METHODS	-----------------
+		
+		@Override
+		public int hashCode()
+		{
+			int hash = this.file.hashCode();
+			hash = 31 * hash + Float.floatToIntBits(this.sampleRate);
+			hash = 31 * hash + this.channels;
+			return 31 * hash + (this.compression == null ? 0 : this.compression.hashCode());
+		}
+		
+		@Override
+		public boolean equals(Object obj)
+		{
+			if (!(obj instanceof Key))
+				return false;
+			
+			Key other = (Key) obj;
+			return this.file.equals(other.file) && this.sampleRate == other.sampleRate && 
+					this.channels == other.channels && this.compression == other.compression;
+		}
+	}
+}
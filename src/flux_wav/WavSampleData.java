@@ -0,0 +1,37 @@
+package flux_wav;
+
+import java.io.IOException;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.UnsupportedAudioFileException;
+
+/**
+ * WavSampleData is the source of a wavSound's samples. Each playing instance of a sound 
+ * reads the data through its own reader so that the same data can be played multiple times 
+ * simultaneously.
+ * 
+ * @author Mikko Hilpinen
+ * @since 17.10.2026
+ */
+interface WavSampleData
+{
+	/**
+	 * @return The format of the samples. The samples are always signed 16-bit 
+	 * little-endian pcm.
+	 */
+	public AudioFormat getFormat();
+	
+	/**
+	 * Opens a new reader that starts from the beginning of the data
+	 * @return A new reader for the data
+	 * @throws IOException If the data couldn't be read
+	 * @throws UnsupportedAudioFileException If the data isn't in a supported format
+	 */
+	public WavSampleReader openReader() throws IOException, UnsupportedAudioFileException;
+	
+	/**
+	 * @return How many bytes of memory the data keeps. 0 if the samples are read from 
+	 * outside the heap.
+	 */
+	public long getByteSize();
+}
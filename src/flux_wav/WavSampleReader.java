@@ -0,0 +1,45 @@
+package flux_wav;
+
+import java.io.IOException;
+
+/**
+ * WavSampleReader reads samples from sample data using its own cursor
+ * 
+ * @author Mikko Hilpinen
+ * @since 17.10.2026
+ * @see WavSampleData
+ */
+interface WavSampleReader
+{
+	/**
+	 * Reads the next samples into the given buffer. The samples are interleaved so that 
+	 * each frame contains a sample for each channel.
+	 * @param buffer The buffer the samples are read into
+	 * @param offset The frame index in the buffer where the first read frame is placed
+	 * @param frames How many frames should be read at most
+	 * @return How many frames were read. Less frames are only returned when the end of the 
+	 * data is reached. -1 if the end of the data had already been reached.
+	 * @throws IOException If the reading failed
+	 */
+	public int read(short[] buffer, int offset, int frames) throws IOException;
+	
+	/**
+	 * Moves the reader's cursor to the given frame
+	 * @param frame The index of the frame the next read starts from
+	 * @throws IOException If the cursor couldn't be moved
+	 */
+	public void seek(long frame) throws IOException;
+	
+	/**
+	 * Tells the reader that it will later be moved to the given frame. Readers that can't 
+	 * seek cheaply may prepare the move in the background so that {@link #seek(long)} 
+	 * doesn't block the mixer.
+	 * @param frame The index of the frame the reader will be moved to
+	 */
+	public void prepareSeek(long frame);
+	
+	/**
+	 * Releases the resources used by the reader
+	 */
+	public void close();
+}
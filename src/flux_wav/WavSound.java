@@ -2,20 +2,12 @@ package flux_wav;
 
 import java.io.File;
 import java.io.IOException;
-import java.util.Iterator;
-import java.util.LinkedList;
-import java.util.List;
 
 import javax.sound.sampled.AudioFormat;
-import javax.sound.sampled.AudioInputStream;
-import javax.sound.sampled.AudioSystem;
-import javax.sound.sampled.DataLine;
-import javax.sound.sampled.FloatControl;
-import javax.sound.sampled.LineUnavailableException;
-import javax.sound.sampled.SourceDataLine;
 import javax.sound.sampled.UnsupportedAudioFileException;
 
 import flux_sound.Sound;
+import flux_sound.SoundEvent.SoundEventType;
 import flux_sound.SoundListener;
 
 /**
@@ -31,10 +23,21 @@ public class WavSound extends Sound
 {
 	// ATTRIBUTES	-----------------------------------------------------
 	
-	private List<WavPlayer> players;
+	private VoiceRegistry voices;
 	//private String filename;
 	private File soundfile;
 	private double defaultvolume, defaultpan;
+	private WavStorageMode storagemode;
+	private volatile WavStorageMode autostoragemode;
+	private WavCompression compression;
+	private volatile WavSampleData streameddata;
+	private int maxinstances, priority;
+	// The instances that have passed the voice limit but haven't been added to the voices 
+	// yet. Guarded by the voices.
+	private int pendinginstances;
+	private long loopstart, loopend;
+	private VoiceStealPolicy stealpolicy;
+	private boolean normalized;
 	
 	
 	// CONSTRUCTOR	----------------------------------------------------
@@ -58,22 +61,62 @@ public class WavSound extends Sound
 		this.soundfile = new File("data/" + filename);
 		this.defaultvolume = defaultvolume;
 		this.defaultpan = defaultpan;
-		this.players = new LinkedList<WavPlayer>();
+		this.voices = new VoiceRegistry();
+		this.storagemode = WavStorageMode.AUTO;
+		this.autostoragemode = null;
+		this.compression = WavCompression.NONE;
+		this.streameddata = null;
+		this.maxinstances = 0;
+		this.pendinginstances = 0;
+		this.priority = 0;
+		this.stealpolicy = VoiceStealPolicy.OLDEST;
+		this.loopstart = 0;
+		this.loopend = -1;
+		this.normalized = false;
 	}
 	
 	
 	// IMPLEMENTED METHODS	--------------------------------------------
 	
+	/**
+	 * The start is only informed once a voice has been admitted, since the voice limits 
+	 * may refuse the play
+	 */
+	@Override
+	protected boolean informsStartItself()
+	{
+		return true;
+	}
+	
 	@Override
 	protected void playSound()
 	{
-		startsound(this.defaultvolume, this.defaultpan, false);
+		startsound(this.defaultvolume, this.defaultpan, false, null, 0);
 	}
 	
 	@Override
 	protected void loopSound()
 	{
-		startsound(this.defaultvolume, this.defaultpan, true);
+		startsound(this.defaultvolume, this.defaultpan, true, null, 0);
+	}
+	
+	@Override
+	protected void fadeInSound(int millis, boolean loops)
+	{
+		startsound(this.defaultvolume, this.defaultpan, loops, null, millis);
+	}
+	
+	/**
+	 * Fades out all instances of the sound. Each instance stops once it has faded out.
+	 */
+	@Override
+	protected void fadeOutSound(int millis)
+	{
+		int frames = millisToFrames(millis);
+		for (WavVoice voice : this.voices)
+		{
+			voice.fadeOut(frames);
+		}
 	}
 	
 	/**
@@ -83,10 +126,10 @@ public class WavSound extends Sound
 	protected void stopSound()
 	{
 		// Stops all of the sounds playing
-		Iterator<WavPlayer> i = this.players.iterator();
-		
-		while (i.hasNext())
-			i.next().stopSound();
+		for (WavVoice voice : this.voices)
+		{
+			voice.stop();
+		}
 	}
 
 	/**
@@ -95,11 +138,12 @@ public class WavSound extends Sound
 	@Override
 	public void pause()
 	{
-		// Stops all of the sounds playing
-		Iterator<WavPlayer> i = this.players.iterator();
-		
-		while (i.hasNext())
-			i.next().pause();
+		// Pauses all of the sounds playing
+		for (WavVoice voice : this.voices)
+		{
+			if (voice.pause())
+				onVoiceEvent(voice, SoundEventType.PAUSE);
+		}
 	}
 	
 	/**
@@ -108,21 +152,417 @@ public class WavSound extends Sound
 	@Override
 	public void unpause()
 	{
-		// Stops all of the sounds playing
-		Iterator<WavPlayer> i = this.players.iterator();
-		
-		while (i.hasNext())
-			i.next().unpause();
+		// Unpauses all of the paused sounds
+		for (WavVoice voice : this.voices)
+		{
+			if (voice.unpause())
+				onVoiceEvent(voice, SoundEventType.RESUME);
+		}
+	}
+	
+	
+	@Override
+	public int getActiveInstanceCount()
+	{
+		return this.voices.size();
+	}
+	
+	/**
+	 * The frame of the oldest instance that is still playing or paused
+	 */
+	@Override
+	public long getFramePosition()
+	{
+		WavVoice oldest = this.voices.getOldest(null);
+		if (oldest == null)
+			return -1;
+		return oldest.getFramePosition();
+	}
+	
+	/**
+	 * A wav sound is playing as long as any of its instances is playing or paused, since 
+	 * the instances end separately
+	 */
+	@Override
+	public boolean isPlaying()
+	{
+		return this.voices.containsLiveVoices();
+	}
+	
+	
+	// GETTERS & SETTERS	--------------------------------------------
+	
+	/**
+	 * @return How the samples of this sound are stored between plays
+	 */
+	public WavStorageMode getStorageMode()
+	{
+		return this.storagemode;
+	}
+	
+	/**
+	 * Changes how the samples of this sound are stored between plays. The change affects 
+	 * the following plays only.
+	 * @param mode The new storage mode of the sound (auto by default)
+	 */
+	public void setStorageMode(WavStorageMode mode)
+	{
+		this.storagemode = mode;
+		this.autostoragemode = null;
+	}
+	
+	/**
+	 * @return How the samples of this sound are stored in memory when the sound is resident
+	 */
+	public WavCompression getCompression()
+	{
+		return this.compression;
+	}
+	
+	/**
+	 * Changes how the samples of this sound are stored in memory when the sound is 
+	 * resident. The change affects the following plays only.
+	 * @param compression The new compression of the sound (none by default)
+	 */
+	public void setCompression(WavCompression compression)
+	{
+		this.compression = compression;
+	}
+	
+	/**
+	 * @return How many instances of this sound can play at the same time. 0 or less if 
+	 * unlimited.
+	 */
+	public int getMaxInstances()
+	{
+		return this.maxinstances;
+	}
+	
+	/**
+	 * Changes how many instances of this sound can play at the same time. When the limit 
+	 * is reached, the sound's steal policy decides what happens to the new play.
+	 * @param maxinstances How many instances of this sound can play at the same time. 0 or 
+	 * less if unlimited (default).
+	 * @see #setStealPolicy(VoiceStealPolicy)
+	 */
+	public void setMaxInstances(int maxinstances)
+	{
+		this.maxinstances = maxinstances;
+	}
+	
+	/**
+	 * @return The priority of the sound. When the mixer's voice budget is full, sounds 
+	 * with a higher priority may steal voices from sounds with a lower priority.
+	 */
+	public int getPriority()
+	{
+		return this.priority;
+	}
+	
+	/**
+	 * Changes the priority of the sound
+	 * @param priority The new priority of the sound (0 by default)
+	 * @see #getPriority()
+	 */
+	public void setPriority(int priority)
+	{
+		this.priority = priority;
+	}
+	
+	/**
+	 * @return What happens when this sound is played while its voice limit or the 
+	 * mixer's voice budget is full
+	 */
+	public VoiceStealPolicy getStealPolicy()
+	{
+		return this.stealpolicy;
+	}
+	
+	/**
+	 * Changes what happens when this sound is played while its voice limit or the mixer's 
+	 * voice budget is full
+	 * @param policy The new steal policy (oldest by default)
+	 */
+	public void setStealPolicy(VoiceStealPolicy policy)
+	{
+		this.stealpolicy = policy;
+	}
+	
+	/**
+	 * @return The frame the sound jumps back to when it loops
+	 */
+	public long getLoopStart()
+	{
+		return this.loopstart;
+	}
+	
+	/**
+	 * @return The frame after which a looping sound jumps back to the loop start. -1 if 
+	 * the whole sound is looped.
+	 */
+	public long getLoopEnd()
+	{
+		return this.loopend;
+	}
+	
+	/**
+	 * Changes the part of the sound that is repeated when the sound loops. The first 
+	 * play always starts from the beginning of the sound. The frames are counted in the 
+	 * mixer's sample rate. The change affects the following plays only.
+	 * @param loopstart The frame the sound jumps back to when it loops (0 by default)
+	 * @param loopend The frame after which the sound jumps back to the loop start (-1 if 
+	 * the sound loops from its end)
+	 */
+	public void setLoopPoints(long loopstart, long loopend)
+	{
+		this.loopstart = loopstart;
+		this.loopend = loopend;
+	}
+	
+	
+	/**
+	 * @return Are the samples of this sound converted into the mixer's channel count as 
+	 * well as its sample rate
+	 */
+	public boolean isNormalized()
+	{
+		return this.normalized;
+	}
+	
+	/**
+	 * Changes whether the resident samples of this sound are converted into the mixer's 
+	 * channel count as well as its sample rate. Normalized mono sounds are played as stereo, 
+	 * so they are panned by balance instead of constant power panning.
+	 * @param normalized Should the samples be converted into the mixer's format (false by 
+	 * default)
+	 */
+	public void setNormalized(boolean normalized)
+	{
+		this.normalized = normalized;
 	}
 	
 	
 	// OTHER METHODS	------------------------------------------------
 	
-	private void startsound(double volume, double pan, boolean loops)
+	/**
+	 * Decodes the samples of a resident sound into memory so that the first play doesn't 
+	 * have to. Sounds that are streamed are not affected.
+	 */
+	@Override
+	public void preload()
+	{
+		try
+		{
+			AudioFormat mixerformat = WavMixer.getDefaultFormat();
+			if (resolveStorageMode(mixerformat.getSampleRate()) == WavStorageMode.RESIDENT)
+				getSampleData(mixerformat);
+		}
+		catch (UnsupportedAudioFileException e)
+		{
+			System.err.println("Audiofile not supported!");
+			e.printStackTrace();
+		}
+		catch (IOException e)
+		{
+			System.err.println("Failed to load the audio file!");
+			e.printStackTrace();
+		}
+	}
+	
+	/**
+	 * @return The format the samples of this sound are played from, or null if the sound 
+	 * couldn't be loaded. Normalized resident sounds are in the mixer's format. The 
+	 * samples are loaded if they haven't been already.
+	 */
+	public AudioFormat getSampleFormat()
+	{
+		try
+		{
+			return getSampleData(WavMixer.getDefaultFormat()).getFormat();
+		}
+		catch (UnsupportedAudioFileException e)
+		{
+			System.err.println("Audiofile not supported!");
+			e.printStackTrace();
+		}
+		catch (IOException e)
+		{
+			System.err.println("Failed to load the audio file!");
+			e.printStackTrace();
+		}
+		
+		return null;
+	}
+	
+	// Returns whether a new voice was started. The start is informed right before the 
+	// voice is mixed, so that it comes before the voice's own events.
+	private boolean startsound(double volume, double pan, boolean loops, 
+			SoundListener listener, int fademillis)
+	{
+		// The start latency is measured from the request
+		long requested = System.nanoTime();
+		
+		// Makes room for the new instance, if necessary
+		WavMixer mixer = WavMixer.getDefaultMixer();
+		if (!reserveInstance(mixer, volume))
+			return false;
+		
+		// Opens the samples in a format the mixer can use
+		WavSampleReader reader = null;
+		int channels = 0;
+		try
+		{
+			WavSampleData data = getSampleData(mixer.getFormat());
+			reader = data.openReader();
+			channels = data.getFormat().getChannels();
+		}
+		catch (UnsupportedAudioFileException e1)
+		{
+			System.err.println("Audiofile not supported!");
+			e1.printStackTrace();
+			releaseInstance(null);
+			return false;
+		}
+		catch (IOException e1)
+		{
+			System.err.println("Failed to load the audio file!");
+			e1.printStackTrace();
+			releaseInstance(null);
+			return false;
+		} 
+		
+		WavVoice newvoice = new WavVoice(this, mixer, reader, channels, volume, pan, loops, 
+				listener, requested);
+		if (fademillis > 0)
+			newvoice.fadeIn(millisToFrames(fademillis));
+		releaseInstance(newvoice);
+		if (!mixer.reserveVoice(newvoice))
+		{
+			// The mixer had no room for the voice
+			this.voices.remove(newvoice);
+			newvoice.finish();
+			return false;
+		}
+		
+		informSoundStart(listener, 0, newvoice.getId());
+		mixer.addVoice(newvoice);
+		return true;
+	}
+	
+	private static int millisToFrames(int millis)
+	{
+		return (int) (WavMixer.getDefaultFormat().getFrameRate() * millis / 1000);
+	}
+	
+	// Checks the voice limit of the sound, stealing a voice if necessary. A successful 
+	// reservation must be followed by releaseInstance, since concurrent plays count the 
+	// reserved instances as well.
+	private boolean reserveInstance(WavMixer mixer, double volume)
+	{
+		synchronized (this.voices)
+		{
+			if (this.maxinstances > 0)
+			{
+				int instances = this.pendinginstances;
+				WavVoice victim = null;
+				for (WavVoice voice : this.voices)
+				{
+					if (!voice.isAlive())
+						continue;
+					
+					instances ++;
+					if (this.stealpolicy.prefers(voice, victim))
+						victim = voice;
+				}
+				
+				if (instances >= this.maxinstances)
+				{
+					// Quietest stealing doesn't replace louder voices with quieter ones
+					if (this.stealpolicy == VoiceStealPolicy.REJECT_NEW || victim == null || 
+							(this.stealpolicy == VoiceStealPolicy.QUIETEST && 
+							victim.getVolume() > volume))
+						return false;
+					
+					// The stolen voice stops right away, so it is no longer counted
+					mixer.stealVoice(victim);
+				}
+			}
+			
+			this.pendinginstances ++;
+			return true;
+		}
+	}
+	
+	// Replaces a reserved instance with the new voice (null if the play failed)
+	private void releaseInstance(WavVoice voice)
+	{
+		synchronized (this.voices)
+		{
+			this.pendinginstances --;
+			if (voice != null)
+				this.voices.add(voice);
+		}
+	}
+	
+	private WavSampleData getSampleData(AudioFormat mixerformat) throws IOException, 
+			UnsupportedAudioFileException
+	{
+		float sampleRate = mixerformat.getSampleRate();
+		WavStorageMode mode = resolveStorageMode(sampleRate);
+		if (mode == WavStorageMode.RESIDENT)
+			return WavSampleCache.getSamples(this.soundfile, sampleRate, 
+					this.normalized ? mixerformat.getChannels() : 0, this.compression);
+		
+		// The data may be created on a preload thread while the sound is played
+		if (this.streameddata == null)
+		{
+			synchronized (this)
+			{
+				if (this.streameddata == null)
+					this.streameddata = createStreamedData(mode, sampleRate);
+			}
+		}
+		return this.streameddata;
+	}
+	
+	private WavSampleData createStreamedData(WavStorageMode mode, float sampleRate) throws 
+			IOException, UnsupportedAudioFileException
 	{
-		WavPlayer newplayer = new WavPlayer(pan, volume, loops);
-		newplayer.start();
-		this.players.add(newplayer);
+		if (mode == WavStorageMode.MAPPED)
+		{
+			try
+			{
+				return MappedSampleData.map(this.soundfile, sampleRate);
+			}
+			catch (UnsupportedAudioFileException e)
+			{
+				System.err.println(e.getMessage() + ", streaming it instead");
+			}
+		}
+		
+		return new StreamedSampleData(this.soundfile, sampleRate);
+	}
+	
+	// Decides whether an auto sound is resident or streamed, based on its decoded size
+	private WavStorageMode resolveStorageMode(float sampleRate) throws IOException, 
+			UnsupportedAudioFileException
+	{
+		if (this.storagemode != WavStorageMode.AUTO)
+			return this.storagemode;
+		
+		if (this.autostoragemode == null)
+		{
+			long size = WavSampleCache.estimateByteSize(this.soundfile, sampleRate);
+			if (this.compression == WavCompression.ADPCM)
+				size /= 4;
+			
+			if (size >= 0 && size <= WavSampleCache.getResidentThreshold())
+				this.autostoragemode = WavStorageMode.RESIDENT;
+			else
+				this.autostoragemode = WavStorageMode.STREAMED;
+		}
+		
+		return this.autostoragemode;
 	}
 	
 	/**
@@ -135,8 +575,7 @@ public class WavSound extends Sound
 	 */
 	public void play(double volume, double pan, SoundListener specificlistener)
 	{
-		startsound(this.defaultvolume + volume, pan, false);
-		informSoundStart(specificlistener);
+		startsound(this.defaultvolume + volume, pan, false, specificlistener, 0);
 	}
 	
 	/**
@@ -150,8 +589,7 @@ public class WavSound extends Sound
 	 */
 	public void loop(double volume, double pan, SoundListener specificlistener)
 	{
-		startsound(this.defaultvolume + volume, pan, true);
-		informSoundStart(specificlistener);
+		startsound(this.defaultvolume + volume, pan, true, specificlistener, 0);
 	}
 	
 	/**
@@ -159,9 +597,13 @@ public class WavSound extends Sound
 	 */
 	public void stopOldest()
 	{
-		// Stops the oldest wavplayer
-		this.players.get(0).stopSound();
-		informSoundEnd();
+		// Stops the oldest voice
+		WavVoice oldest = this.voices.getOldest(null);
+		if (oldest == null)
+			return;
+		
+		oldest.stop();
+		informSoundEnd(oldest.getFramePosition(), oldest.getId());
 	}
 	
 	/**
@@ -169,17 +611,9 @@ public class WavSound extends Sound
 	 */
 	public void pauseOldest()
 	{
-		Iterator<WavPlayer> i = this.players.iterator();
-		
-		while(i.hasNext())
-		{
-			WavPlayer p = i.next();
-			if (!p.paused)
-			{
-				p.pause();
-				break;
-			}
-		}
+		WavVoice oldest = this.voices.getOldest(WavVoice.State.PLAYING);
+		if (oldest != null && oldest.pause())
+			onVoiceEvent(oldest, SoundEventType.PAUSE);
 	}
 	
 	/**
@@ -187,236 +621,35 @@ public class WavSound extends Sound
 	 */
 	public void unpauseOldest()
 	{
-		Iterator<WavPlayer> i = this.players.iterator();
-		
-		while(i.hasNext())
-		{
-			WavPlayer p = i.next();
-			if (p.paused)
-			{
-				p.unpause();
-				break;
-			}
-		}
+		WavVoice oldest = this.voices.getOldest(WavVoice.State.PAUSED);
+		if (oldest != null && oldest.unpause())
+			onVoiceEvent(oldest, SoundEventType.RESUME);
 	}
 	
-	private void onSoundEnd(WavPlayer source)
+	/**
+	 * This method is called by the mixer once a voice of this sound has been removed from 
+	 * the mix
+	 * @param source The voice that ended
+	 */
+	void onVoiceEnd(WavVoice source)
 	{
-		// Removes the old player from the list of players
-		this.players.remove(source);
+		// Removes the old voice from the list of voices
+		this.voices.remove(source);
 		
-		// If the sound should loop, plays it again
-		if (source.looping)
-			loop(source.volume, source.pan, source.listener);
-		// Otherwise, informs the listeners (if the sound stopped naturally)
-		else if (!source.stopped)
-			informSoundEnd();
+		// Looping voices loop by themselves. Informs the listeners if the sound stopped 
+		// naturally or was stolen
+		if (!source.isStopped() || source.wasStolen())
+			informSoundEnd(source.getFramePosition(), source.getId());
 	}
 	
-	
-	// SUBCLASSES	-----------------------------------------------------
-	
 	/**
-	 * WavPlayer loads and plays wav files with the given settings
-	 * 
-	 * @author http://www.anyexample.com/programming/java/java_play_wav_sound_file.xml<br>
-	 * Modified by: Mikko Hilpinen
+	 * This method is called when something happens to a voice of this sound, for example 
+	 * when it loops or is stolen
+	 * @param source The voice the event concerns
+	 * @param type The type of the event
 	 */
-	private class WavPlayer extends Thread
-	{  
-		// ATTRIBUTES	------------------------------------------------------
-		
-	    private float pan, volume;
-	    private final int EXTERNAL_BUFFER_SIZE = 262144;//64kb //524288; // 128Kb
-	    private boolean paused, looping, stopped;
-	    private SoundListener listener;
-	 
-	    
-	    // CONSTRUCTOR	-----------------------------------------------------
-		
-		/**
-		 * Creates a new wavplayer with custom settings
-		 *
-		 * @param pan How much the sound is panned [-1 (left speaker only), 
-		 * 1 (right speaker only)] (0 default)
-		 * @param volume How much the volume is adjusted in desibels (default 0)
-		 * @param loops Should the sound be looped after it ends?
-		 */
-		public WavPlayer(double pan, double volume, boolean loops)
-		{
-	        this.pan = (float) pan;
-	        this.volume = (float) volume;
-	        this.paused = false;
-	        this.looping = loops;
-	        this.stopped = false;
-	        
-	        // Checks that the pan is within limits
-	        if (this.pan < -1)
-	        	this.pan = -1;
-	        else if (this.pan > 1)
-	        	this.pan = 1;
-	        
-	        // Checks that the volume is within limits
-	        if (this.volume > 6)
-	        	this.volume = 6;
-	    }
-		
-		
-		// IMPLEMENTED METHODS	----------------------------------------------
-	 
-	    @Override
-		public void run()
-	    {
-	        // Reads the file as an audioinputstream
-	        AudioInputStream audioInputStream = null;
-	        try
-	        {
-	        	// TODO: WHY U NO READ IN STEREO FORMAT?!?
-	        	audioInputStream = AudioSystem.getAudioInputStream(
-	        			WavSound.this.soundfile);
-	        }
-	        catch (UnsupportedAudioFileException e1)
-	        {
-	        	System.err.println("Audiofile not supported!");
-	            e1.printStackTrace();
-	            return;
-	        }
-	        catch (IOException e1)
-	        {
-	        	System.err.println("Failed to load the audio file!");
-	            e1.printStackTrace();
-	            return;
-	        } 
-	        catch (NullPointerException npe)
-	        {
-	        	System.err.println("Could not find the wavSound file.");
-	        	npe.printStackTrace();
-	        	return;
-	        }
-	 
-	        // Opens the audioline
-	        AudioFormat format = audioInputStream.getFormat();
-	        SourceDataLine auline = null;
-	        DataLine.Info info = new DataLine.Info(SourceDataLine.class, format);
-	 
-	        try
-	        { 
-	            auline = (SourceDataLine) AudioSystem.getLine(info);
-	            auline.open(format);
-	        }
-	        catch (LineUnavailableException e)
-	        {
-	        	System.err.println("Audioline unavailable");
-	            e.printStackTrace();
-	            return;
-	        }
-	       
-	        // Prints the possible controls
-	        /*
-	        Control[] controls = auline.getControls();
-	        for (int i = 0; i < controls.length; i++)
-	        {
-	        	System.out.println(controls[i]);
-		    }
-	        */
-	        
-	        // Tries to set the correct pan (if needed)
-	        if (this.pan != 0 && auline.isControlSupported(FloatControl.Type.PAN))
-	        { 
-	        	// TODO: Pan is not supported?
-	        	
-	            FloatControl pancontrol = (FloatControl) auline.getControl(
-	            		FloatControl.Type.PAN);
-	            pancontrol.setValue(this.pan);
-	        }
-	     	// Tries to set the correct pan #2 (if needed)
-	        if (this.pan != 0 && auline.isControlSupported(FloatControl.Type.BALANCE))
-	        { 
-	        	// TODO: Pan is not supported?
-	        	
-	            FloatControl pancontrol = (FloatControl) auline.getControl(
-	            		FloatControl.Type.BALANCE);
-	            pancontrol.setValue(this.pan);
-	        }
-	        // Tries to set the correct volume (if needed)
-	        if (this.volume != 0)
-	        {
-		        if (auline.isControlSupported(FloatControl.Type.VOLUME))
-		        { 
-		            FloatControl volumecontrol = (FloatControl) auline.getControl(
-		            		FloatControl.Type.VOLUME);
-		            volumecontrol.setValue(this.volume);
-		        }
-		        else if (auline.isControlSupported(FloatControl.Type.MASTER_GAIN))
-		        {
-			        FloatControl volume = 
-			        		(FloatControl) auline.getControl(FloatControl.Type.MASTER_GAIN);
-			        volume.setValue(this.volume);
-		        }
-	        }
-	 
-	        // Plays the track
-	        auline.start();
-	        int nBytesRead = 0;
-	        byte[] abData = new byte[this.EXTERNAL_BUFFER_SIZE];
-	 
-	        try
-	        { 
-	        	// Reads the stream until it ends or until the sound is forced 
-	        	// to stop
-	            while (nBytesRead != -1 && !this.stopped)
-	            {
-	            	if (!this.paused)
-	            	{
-		                nBytesRead = audioInputStream.read(abData, 0, abData.length);
-		                if (nBytesRead >= 0) 
-		                    auline.write(abData, 0, nBytesRead);
-	            	}
-	            }
-	        }
-	        catch (IOException e)
-	        {
-	        	System.err.println("Error in playing the soundfile "/* + 
-	        			WavSound.this.filename*/);
-	            e.printStackTrace();
-	            return;
-	        }
-	        // Closes the file after the sound has stopped playing
-	        finally
-	        { 
-	            auline.drain();
-	            auline.close();
-	            // Also informs the WavSound that the current file ended
-	            onSoundEnd(this);
-	        }
-	    }
-	    
-	    
-	    // OTHER METHODS	---------------------------------------------------
-	    
-	    /**
-	     * Temporarily stops the sound from playing (if it was playing)
-	     */
-	    public void pause()
-	    {
-	    	this.paused = true;
-	    }
-	    
-	    /**
-	     * Continues a paused sound
-	     */
-	    public void unpause()
-	    {
-	    	this.paused = false;
-	    }
-	    
-	    /**
-	     * Stops the sound from playing and looping
-	     */
-	    public void stopSound()
-	    {
-	    	this.stopped = true;
-	    	this.looping = false;
-	    }
+	void onVoiceEvent(WavVoice source, SoundEventType type)
+	{
+		informSoundEvent(type, source.getFramePosition(), source.getId());
 	}
 }
@@ -1,5 +1,9 @@
 package flux_wav;
 
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+
 import arc_bank.Bank;
 import arc_bank.BankBank;
 import arc_bank.BankBankInitializer;
@@ -7,6 +11,8 @@ import arc_bank.BankObjectConstructor;
 import arc_bank.MultiMediaHolder;
 import arc_bank.ResourceInitializationException;
 import flux_wav.WavSound;
+import flux_sound.SoundMetrics;
+import flux_sound.SoundPreloader;
 import flux_sound.SoundResourceType;
 
 /**
@@ -16,13 +22,48 @@ import flux_sound.SoundResourceType;
  */
 public class WavSoundBank
 {
+	// ATTRIBUTES	-------------------------
+	
+	private static volatile boolean normalizesSamples = false;
+	// The names of the constructed banks, used when registering the sounds to the metrics
+	private static final Map<Bank<WavSound>, String> bankNames = 
+			Collections.synchronizedMap(new WeakHashMap<Bank<WavSound>, String>());
+	
+	
 	// CONSTRUCTOR	-------------------------
 	
 	private WavSoundBank()
 	{
 		// The interface is static
 	}
-
+	
+	
+	// GETTERS & SETTERS	----------------
+	
+	/**
+	 * @return Are the resident sounds converted into the mixer's format when the banks are 
+	 * loaded
+	 */
+	public static boolean normalizesSamples()
+	{
+		return normalizesSamples;
+	}
+	
+	/**
+	 * Changes whether the resident sounds are converted into the mixer's format (sample 
+	 * rate, channel count and sample size) when the banks are loaded. When enabled, each 
+	 * resident sound is decoded and resampled once when its bank is constructed, so the 
+	 * playback never has to convert the samples. Streamed sounds are still converted while 
+	 * they play. The setting affects the banks that are constructed afterwards.
+	 * @param normalize Should the resident sounds be normalized when loaded (false by 
+	 * default)
+	 * @see WavSound#setNormalized(boolean)
+	 */
+	public static void setNormalizesSamples(boolean normalize)
+	{
+		normalizesSamples = normalize;
+	}
+	
 	
 	// OTHER METHODS	--------------------
 	
@@ -33,11 +74,25 @@ public class WavSoundBank
 	 * included). The file should have the following format:<br>
 	 * &bankName1<br>
 	 * soundName1#fileName#volumeAdjustment (optional, default = 0)#
-	 * panAdjustment (optional, default = 0)<br>
+	 * panAdjustment (optional, default = 0)#options (optional)<br>
 	 * soundName2#...<br>
 	 * ...<br>
 	 * &bankName2<br>
 	 * ...<br>
+	 * The options are a comma separated list of key=value pairs. The supported options 
+	 * are:<br>
+	 * storage=auto|resident|streamed|mapped (default = auto)<br>
+	 * compression=none|adpcm, how resident samples are kept in memory (default = none)<br>
+	 * maxInstances=how many instances of the sound can play at once (default = unlimited)<br>
+	 * priority=the priority of the sound when voices are stolen (default = 0)<br>
+	 * steal=oldest|quietest|reject_new (default = oldest)<br>
+	 * loopStart=the frame a looping sound jumps back to (default = 0)<br>
+	 * loopEnd=the frame after which a looping sound jumps back (default = end of the sound)<br>
+	 * The resident sounds are decoded in the background as the banks are constructed.
+	 * @see SoundPreloader
+	 * @see WavStorageMode
+	 * @see WavCompression
+	 * @see VoiceStealPolicy
 	 */
 	public static void initializeWavSoundResources(String fileName)
 	{
@@ -50,11 +105,12 @@ public class WavSoundBank
 	 * included). The file should have the following format:<br>
 	 * &bankName1<br>
 	 * soundName1#fileName#volumeAdjustment (optional, default = 0)#
-	 * panAdjustment (optional, default = 0)<br>
+	 * panAdjustment (optional, default = 0)#options (optional)<br>
 	 * soundName2#...<br>
 	 * ...<br>
 	 * &bankName2<br>
 	 * ...<br>
+	 * The supported options are described in {@link #initializeWavSoundResources(String)}
 	 * 
 	 * @return A new Bank system containing all the introduced banks
 	 */
@@ -99,6 +155,7 @@ public class WavSoundBank
 			// The line contains the name of the bank
 			Bank<WavSound> newBank = new Bank<>();
 			bank.put(line, newBank);
+			bankNames.put(newBank, line);
 			return newBank;
 		}
 	}
@@ -109,7 +166,7 @@ public class WavSoundBank
 		public WavSound construct(String line, Bank<WavSound> bank)
 		{
 			// The line has the following format: soundName#fileName#
-			// volumeAdjustment (optional)#pan (optional)
+			// volumeAdjustment (optional)#pan (optional)#options (optional)
 			String[] arguments = line.split("#");
 			
 			if (arguments.length < 2)
@@ -132,9 +189,80 @@ public class WavSoundBank
 			}
 			
 			WavSound newSound = new WavSound(arguments[1], arguments[0], volume, pan);
+			if (arguments.length > 4)
+				parseOptions(newSound, arguments[4], line);
 			bank.put(arguments[0], newSound);
 			
+			SoundMetrics.registerSound(bankNames.get(bank), newSound);
+			
+			// The samples are decoded in the background
+			newSound.setNormalized(normalizesSamples);
+			SoundPreloader.preload(newSound);
+			
 			return newSound;
-		}	
+		}
+		
+		private static void parseOptions(WavSound sound, String options, String line)
+		{
+			// The options have the following format: key1=value1,key2=value2,...
+			for (String option : options.split(","))
+			{
+				String[] keyAndValue = option.split("=");
+				if (keyAndValue.length != 2)
+					throw new ResourceInitializationException("Can't parse option " + 
+							option + " in line " + line);
+				
+				String key = keyAndValue[0].trim();
+				String value = keyAndValue[1].trim();
+				
+				if (key.equalsIgnoreCase("storage"))
+				{
+					WavStorageMode mode = WavStorageMode.parseFromString(value);
+					if (mode == null)
+						throw new ResourceInitializationException(
+								"Can't parse a storage mode from " + value);
+					sound.setStorageMode(mode);
+				}
+				else if (key.equalsIgnoreCase("compression"))
+				{
+					WavCompression compression = WavCompression.parseFromString(value);
+					if (compression == null)
+						throw new ResourceInitializationException(
+								"Can't parse a compression from " + value);
+					sound.setCompression(compression);
+				}
+				else if (key.equalsIgnoreCase("maxInstances"))
+					sound.setMaxInstances(parseInt(value, line));
+				else if (key.equalsIgnoreCase("priority"))
+					sound.setPriority(parseInt(value, line));
+				else if (key.equalsIgnoreCase("loopStart"))
+					sound.setLoopPoints(parseInt(value, line), sound.getLoopEnd());
+				else if (key.equalsIgnoreCase("loopEnd"))
+					sound.setLoopPoints(sound.getLoopStart(), parseInt(value, line));
+				else if (key.equalsIgnoreCase("steal"))
+				{
+					VoiceStealPolicy policy = VoiceStealPolicy.parseFromString(value);
+					if (policy == null)
+						throw new ResourceInitializationException(
+								"Can't parse a steal policy from " + value);
+					sound.setStealPolicy(policy);
+				}
+				else
+					throw new ResourceInitializationException("Unknown option " + key + 
+							" in line " + line);
+			}
+		}
+		
+		private static int parseInt(String value, String line)
+		{
+			try
+			{
+				return Integer.parseInt(value);
+			}
+			catch (NumberFormatException e)
+			{
+				throw new ResourceInitializationException("Can't parse line " + line);
+			}
+		}
 	}
 }
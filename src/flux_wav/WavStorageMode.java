@@ -0,0 +1,56 @@
+package flux_wav;
+
+/**
+ * The storage mode determines how a wavSound's samples are kept while the sound is not 
+ * playing
+ * 
+ * @author Mikko Hilpinen
+ * @since 17.10.2026
+ */
+public enum WavStorageMode
+{
+	/**
+	 * The sound is kept resident if it is small enough and streamed otherwise
+	 * @see WavSampleCache#setResidentThreshold(long)
+	 */
+	AUTO,
+	/**
+	 * The samples are decoded once and kept in memory. Each play reads the same samples. 
+	 * Suits short sound effects that are played often. The samples may still be evicted 
+	 * from memory if the cache exceeds its byte budget.
+	 * @see WavSampleCache
+	 */
+	RESIDENT,
+	/**
+	 * The samples are read from the file during each play. Suits long sounds that are 
+	 * played rarely.
+	 */
+	STREAMED,
+	/**
+	 * The data chunk of the file is mapped into memory and the samples are read straight 
+	 * from the mapping without copying them into the heap. Suits long music files. Only 
+	 * files that contain 16-bit pcm in the mixer's sample rate can be mapped, other files 
+	 * are streamed instead.
+	 */
+	MAPPED;
+	
+	
+	// OTHER METHODS	---------------------------
+	
+	/**
+	 * Finds a storage mode the given string represents
+	 * @param s A string that represents a storage mode
+	 * @return The storage mode represented by the string or null if no such mode can be 
+	 * found
+	 */
+	public static WavStorageMode parseFromString(String s)
+	{
+		for (WavStorageMode mode : values())
+		{
+			if (mode.toString().equalsIgnoreCase(s))
+				return mode;
+		}
+		
+		return null;
+	}
+}
@@ -0,0 +1,554 @@
+package flux_wav;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import flux_sound.SoundEvent.SoundEventType;
+import flux_sound.SoundListener;
+import flux_sound.SoundMetrics;
+import flux_sound.StartStage;
+
+/**
+ * WavVoice is a single playing instance of a wavSound. Voices don't play themselves but are
+ * mixed into the output by a {@link WavMixer}. The play commands (pause, stop, ...) only
+ * change the voice's state, which the mixer then reacts to. Paused voices are removed from
+ * the mixer until they are resumed, so they don't cost anything while they wait.
+ *
+ * @author Mikko Hilpinen
+ * @since 17.10.2026
+ */
+class WavVoice
+{
+	// ATTRIBUTES	-----------------------------
+	
+	private static final AtomicLong createdVoices = new AtomicLong();
+	
+	private final long id, requestedNanos, createdNanos;
+	private final WavSound sound;
+	private final WavMixer mixer;
+	private final WavSampleReader reader;
+	private final int channels;
+	private final float volume, pan;
+	private final float leftGain, rightGain;
+	private final SoundListener listener;
+	private final long loopStart, loopEnd;
+	private long position, outputFrame;
+	private short[] readBuffer, stereoBuffer;
+	private float[] gains;
+	private volatile Fade fade;
+	private Fade currentFade;
+	private float fadeLevel, fadeStep;
+	private boolean gainsRamped;
+	private final AtomicReference<State> state;
+	private final AtomicBoolean scheduled;
+	private volatile boolean looping, stopped, stolen;
+	
+	
+	// CONSTRUCTOR	-----------------------------
+	
+	/**
+	 * Creates a new voice
+	 * @param sound The sound this voice is playing
+	 * @param mixer The mixer that will play the voice. The creator is responsible for 
+	 * adding the voice to the mixer.
+	 * @param reader The reader the voice reads its samples from. The samples must be in 
+	 * the sample rate of the mixer.
+	 * @param channels How many channels the samples have
+	 * @param volume How much the volume is adjusted in desibels (default 0)
+	 * @param pan How much the sound is panned [-1 (left speaker only),
+	 * 1 (right speaker only)] (0 default)
+	 * @param loops Should the sound be looped. Looping voices jump back to the sound's 
+	 * loop start once they reach its loop end.
+	 * @param listener The listener that is specifically interested in this voice (optional)
+	 * @param requestedNanos The {@link System#nanoTime()} at which the voice was requested. 
+	 * The start latency of the voice is measured from this moment.
+	 */
+	public WavVoice(WavSound sound, WavMixer mixer, WavSampleReader reader, int channels, 
+			double volume, double pan, boolean loops, SoundListener listener, 
+			long requestedNanos)
+	{
+		this.id = createdVoices.incrementAndGet();
+		this.requestedNanos = requestedNanos;
+		this.createdNanos = System.nanoTime();
+		this.sound = sound;
+		this.mixer = mixer;
+		this.reader = reader;
+		this.channels = channels;
+		this.listener = listener;
+		this.looping = loops;
+		this.loopStart = Math.max(0, sound.getLoopStart());
+		this.loopEnd = sound.getLoopEnd();
+		this.position = 0;
+		this.outputFrame = -1;
+		this.fade = null;
+		this.currentFade = null;
+		this.fadeLevel = 1;
+		this.fadeStep = 0;
+		this.gainsRamped = false;
+		this.stopped = false;
+		this.stolen = false;
+		this.state = new AtomicReference<>(State.PLAYING);
+		this.scheduled = new AtomicBoolean(true);
+		
+		// Checks that the pan and volume are within limits
+		this.pan = (float) Math.max(-1, Math.min(1, pan));
+		this.volume = (float) Math.min(6, volume);
+		
+		// The gain and pan are applied while mixing
+		float gain = MixerDsp.desibelsToGain(this.volume);
+		this.leftGain = gain * MixerDsp.leftPanGain(this.pan, channels > 1);
+		this.rightGain = gain * MixerDsp.rightPanGain(this.pan, channels > 1);
+		
+		// Streamed readers open the loop start in advance
+		if (loops)
+			reader.prepareSeek(this.loopStart);
+	}
+	
+	
+	// GETTERS & SETTERS	---------------------
+	
+	/**
+	 * @return The unique identifier of the voice. Voices created later have larger 
+	 * identifiers.
+	 */
+	public long getId()
+	{
+		return this.id;
+	}
+	
+	/**
+	 * @return The sound this voice plays
+	 */
+	public WavSound getSound()
+	{
+		return this.sound;
+	}
+	
+	/**
+	 * @return The volume adjustment of this voice in desibels
+	 */
+	public float getVolume()
+	{
+		return this.volume;
+	}
+	
+	/**
+	 * @return The pan of this voice [-1, 1]
+	 */
+	public float getPan()
+	{
+		return this.pan;
+	}
+	
+	/**
+	 * @return The listener that is interested in this voice specifically (may be null)
+	 */
+	public SoundListener getListener()
+	{
+		return this.listener;
+	}
+	
+	/**
+	 * @return The current state of the voice
+	 */
+	public State getState()
+	{
+		return this.state.get();
+	}
+	
+	/**
+	 * @return Is the voice currently paused
+	 */
+	public boolean isPaused()
+	{
+		return getState() == State.PAUSED;
+	}
+	
+	/**
+	 * @return The index of the next frame the voice will read
+	 */
+	public long getFramePosition()
+	{
+		return this.position;
+	}
+	
+	/**
+	 * @return Has the voice been mixed at least once
+	 */
+	public boolean hasMixed()
+	{
+		return this.readBuffer != null || getState() == State.FINISHED;
+	}
+	
+	/**
+	 * @return The index of the output frame where the voice's first sample was written. -1 
+	 * if the voice hasn't been written yet.
+	 */
+	long getOutputFrame()
+	{
+		return this.outputFrame;
+	}
+	
+	/**
+	 * Records the output frame where the voice's first sample was written. This should 
+	 * only be called by the mixer thread.
+	 * @param frame The index of the output frame
+	 */
+	void setOutputFrame(long frame)
+	{
+		this.outputFrame = frame;
+	}
+	
+	/**
+	 * @return Does the voice loop until it is stopped
+	 */
+	public boolean isLooping()
+	{
+		return this.looping;
+	}
+	
+	/**
+	 * @return Was the voice forced to stop
+	 */
+	public boolean isStopped()
+	{
+		return this.stopped;
+	}
+	
+	/**
+	 * @return Was the voice stopped to make room for another voice
+	 */
+	public boolean wasStolen()
+	{
+		return this.stolen;
+	}
+	
+	/**
+	 * @return Is the voice still playing or paused
+	 */
+	public boolean isAlive()
+	{
+		State current = getState();
+		return current == State.PLAYING || current == State.PAUSED;
+	}
+
+	
+	
+	// OTHER METHODS	-------------------------
+	
+	/**
+	 * Temporarily stops the voice from playing (if it was playing). The mixer will remove 
+	 * the voice during its next cycle.
+	 * @return Was the voice paused. False if it wasn't playing.
+	 */
+	public boolean pause()
+	{
+		return this.state.compareAndSet(State.PLAYING, State.PAUSED);
+	}
+	
+	/**
+	 * Continues a paused voice from the frame it was paused at
+	 * @return Was the voice resumed. False if it wasn't paused.
+	 */
+	public boolean unpause()
+	{
+		if (!this.state.compareAndSet(State.PAUSED, State.PLAYING))
+			return false;
+		
+		reschedule();
+		return true;
+	}
+	
+	/**
+	 * Stops the voice from playing and looping. The mixer will remove the voice during its
+	 * next cycle.
+	 */
+	public void stop()
+	{
+		this.looping = false;
+		this.stopped = true;
+		
+		if (this.state.compareAndSet(State.PLAYING, State.STOPPING))
+			return;
+		// Paused voices have to be returned to the mixer so that they can be finished
+		if (this.state.compareAndSet(State.PAUSED, State.STOPPING))
+			reschedule();
+	}
+	
+	/**
+	 * Makes the voice start from silence and raises its volume to the normal level. This 
+	 * should be called before the voice is added to the mixer.
+	 * @param frames How many frames the fade lasts
+	 */
+	public void fadeIn(int frames)
+	{
+		this.fade = new Fade(0, 1, frames, false);
+	}
+	
+	/**
+	 * Lowers the volume of the voice to silence, starting from its current level, and 
+	 * then ends the voice. A paused voice fades once it is resumed.
+	 * @param frames How many frames the fade lasts
+	 */
+	public void fadeOut(int frames)
+	{
+		this.looping = false;
+		this.fade = new Fade(Float.NaN, 0, frames, true);
+	}
+	
+	/**
+	 * Stops the voice in order to make room for another voice
+	 */
+	public void steal()
+	{
+		this.stolen = true;
+		stop();
+		this.sound.onVoiceEvent(this, SoundEventType.VOICE_STOLEN);
+	}
+	
+	/**
+	 * Removes a paused voice from the mixer's schedule. This should only be called by the 
+	 * mixer thread.
+	 * @return Should the mixer remove the voice. False if the voice was resumed meanwhile.
+	 */
+	boolean deschedule()
+	{
+		this.scheduled.set(false);
+		
+		// If the voice was resumed while it was being descheduled, it is kept in the mix 
+		// unless the resume already added it back
+		if (getState() == State.PAUSED)
+			return true;
+		return !this.scheduled.compareAndSet(false, true);
+	}
+	
+	/**
+	 * Marks the voice finished and releases its resources. This should be called once the 
+	 * voice has been removed from the mix.
+	 */
+	void finish()
+	{
+		this.state.set(State.FINISHED);
+		close();
+	}
+	
+	/**
+	 * Records that the voice has reached a start stage
+	 * @param stage The stage that was reached just now
+	 */
+	void recordStartStage(StartStage stage)
+	{
+		recordStartStage(stage, System.nanoTime());
+	}
+	
+	private void recordStartStage(StartStage stage, long reachedNanos)
+	{
+		SoundMetrics.recordStartStage(this.sound, stage, reachedNanos - this.requestedNanos);
+	}
+	
+	private void reschedule()
+	{
+		if (this.scheduled.compareAndSet(false, true))
+			this.mixer.addVoice(this);
+	}
+	
+	/**
+	 * Adds the next samples of this voice to the mix. This should only be called by the
+	 * mixer thread, always with the same frame count.
+	 * @param mix The interleaved stereo mix buffer the samples are added to
+	 * @param frames How many frames should be mixed
+	 * @return Should the voice still be kept in the mix
+	 */
+	boolean mix(float[] mix, int frames)
+	{
+		// The buffers are taken from the pool when the voice is first mixed
+		if (this.readBuffer == null)
+		{
+			this.readBuffer = BufferPool.getShorts(frames * this.channels);
+			this.stereoBuffer = this.channels > 1 ? this.readBuffer : 
+					BufferPool.getShorts(frames * 2);
+			this.gains = BufferPool.getFloats(frames * 2);
+			MixerDsp.fillGains(this.gains, frames, this.leftGain, this.rightGain);
+			
+			// The output open is only recorded for the plays that had to wait for it, since 
+			// the output usually stays open between the plays
+			long now = System.nanoTime();
+			recordStartStage(StartStage.DECODE_READY, this.createdNanos);
+			long outputOpened = this.mixer.getOutputOpenedNanos();
+			if (outputOpened >= this.requestedNanos)
+				recordStartStage(StartStage.LINE_OPEN, outputOpened);
+			recordStartStage(StartStage.FIRST_MIX, now);
+			SoundMetrics.recordStartLatency(now - this.requestedNanos);
+		}
+		
+		// Reads as many frames as there are available, wrapping back to the loop start 
+		// when the loop end is reached
+		int filled = 0;
+		boolean ended = false, wrapped = false;
+		try
+		{
+			while (filled < frames)
+			{
+				int request = frames - filled;
+				if (this.looping && this.loopEnd > 0)
+					request = (int) Math.max(0, Math.min(request, this.loopEnd - this.position));
+				
+				int read = request > 0 ? this.reader.read(this.readBuffer, filled, request) : 0;
+				if (read > 0)
+				{
+					filled += read;
+					this.position += read;
+					wrapped = false;
+					
+					if (read == request)
+						continue;
+				}
+				
+				// The end of the data (or the loop) was reached. If nothing could be read 
+				// right after wrapping, the loop is empty and the voice ends
+				if (!this.looping || wrapped)
+				{
+					ended = true;
+					break;
+				}
+				
+				this.reader.seek(this.loopStart);
+				this.position = this.loopStart;
+				wrapped = true;
+				this.sound.onVoiceEvent(this, SoundEventType.LOOP);
+			}
+		}
+		catch (IOException e)
+		{
+			System.err.println("Error in playing the soundfile " + this.sound.getName());
+			e.printStackTrace();
+			return false;
+		}
+		
+		SoundMetrics.recordBytesRead(filled * this.channels * 2L);
+		
+		// Fades ramp the gains sample by sample. Voices that have faded out are silent, so 
+		// they are no longer mixed.
+		if (updateFade(frames))
+			return false;
+		
+		// Adds the samples to the mix
+		if (this.channels == 1)
+			MixerDsp.monoToStereo(this.readBuffer, this.stereoBuffer, filled);
+		MixerDsp.mix(this.stereoBuffer, this.gains, mix, filled * 2);
+		
+		return !ended;
+	}
+	
+	// Applies the latest fade to the gains. Returns whether the voice had faded out before 
+	// this block.
+	private boolean updateFade(int frames)
+	{
+		Fade requested = this.fade;
+		if (requested == null)
+			return false;
+		
+		// Starts a new fade from its start level or from the current level
+		if (requested != this.currentFade)
+		{
+			this.currentFade = requested;
+			if (!Float.isNaN(requested.from))
+				this.fadeLevel = requested.from;
+			this.fadeStep = (requested.to - this.fadeLevel) / Math.max(1, requested.frames);
+		}
+		
+		if (this.fadeStep != 0)
+		{
+			this.fadeLevel = MixerDsp.fillGainRamp(this.gains, frames, this.leftGain, 
+					this.rightGain, this.fadeLevel, this.fadeStep, requested.to);
+			this.gainsRamped = true;
+			if (this.fadeStep > 0 ? this.fadeLevel >= requested.to : 
+					this.fadeLevel <= requested.to)
+			{
+				this.fadeLevel = requested.to;
+				this.fadeStep = 0;
+			}
+			
+			// The block that finishes the ramp is still mixed
+			return false;
+		}
+		
+		// Once the target is reached, the gains stay flat at the target level. The start of 
+		// the buffer still holds the end of the ramp.
+		if (this.gainsRamped)
+		{
+			MixerDsp.fillGains(this.gains, frames, this.leftGain * requested.to, 
+					this.rightGain * requested.to);
+			this.gainsRamped = false;
+		}
+		
+		return requested.ends && this.fadeLevel <= 0;
+	}
+	
+	private void close()
+	{
+		// Returns the buffers to the pool
+		if (this.stereoBuffer != this.readBuffer)
+			BufferPool.release(this.stereoBuffer);
+		BufferPool.release(this.readBuffer);
+		BufferPool.release(this.gains);
+		this.readBuffer = null;
+		this.stereoBuffer = null;
+		this.gains = null;
+		
+		this.reader.close();
+	}
+	
+	
+	// SUBCLASSES	-----------------------------
+	
+	// A fade command given to the voice. The mixer thread applies the latest command.
+	private static class Fade
+	{
+		// ATTRIBUTES	-------------------------
+		
+		private final float from, to;
+		private final int frames;
+		private final boolean ends;
+		
+		
+		// CONSTRUCTOR	-------------------------
+		
+		// A NaN start level means that the fade starts from the current level
+		public Fade(float from, float to, int frames, boolean ends)
+		{
+			this.from = from;
+			this.to = to;
+			this.frames = frames;
+			this.ends = ends;
+		}
+	}
+	
+	
+	// ENUMERATIONS	-----------------------------
+	
+	/**
+	 * The states a voice goes through during its life
+	 */
+	enum State
+	{
+		/**
+		 * The voice is being mixed
+		 */
+		PLAYING,
+		/**
+		 * The voice is paused and won't be mixed until it is resumed
+		 */
+		PAUSED,
+		/**
+		 * The voice was stopped and will be finished during the next mixer cycle
+		 */
+		STOPPING,
+		/**
+		 * The voice has been removed from the mix for good
+		 */
+		FINISHED;
+	}
+}